@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Startup time and first-request latency of the plain fat jar ("baseline") vs the -Pstartup build
+# (Spring AOT + AppCDS archive). Each variant is started RUNS times on a free JVM; the script reports
+# the time Spring Boot logs for "Started ... in", the wall time until the first HTTP response and the
+# latency of that first request. Results go to stdout and target/startup-benchmark/results.csv.
+#
+# Usage: scripts/measure-startup.sh [runs]   (PORT=18080 by default, JAVA_OPTS are passed to both variants)
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+URL="http://localhost:${PORT}/api/v1/campuses?count=10"
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="${ROOT}/target/startup-benchmark"
+JAR_NAME=campus-api-0.0.1-SNAPSHOT.jar
+
+now_ms() { date +%s%3N; }
+
+# run <variant> <run> <workdir> <java args...>
+run() {
+    local variant=$1 run=$2 workdir=$3
+    shift 3
+    local log="${OUT}/${variant}-${run}.log"
+    local start
+    start=$(now_ms)
+    (cd "$workdir" && exec java ${JAVA_OPTS:-} -Dserver.port="$PORT" "$@" >"$log" 2>&1) &
+    local pid=$!
+    until grep -q "Started CampusApiApplication" "$log" 2>/dev/null; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "${variant} run ${run} exited before startup, see ${log}" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    local first_request
+    first_request=$(curl -s -o /dev/null -w '%{time_total}' "$URL")
+    local ready=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    local started
+    started=$(sed -n 's/.*Started CampusApiApplication in \([0-9.]*\) seconds.*/\1/p' "$log")
+    printf '%-10s %4d %12s %14d %18s\n' "$variant" "$run" "$started" "$ready" "$first_request"
+    echo "${variant},${run},${started},${ready},${first_request}" >>"${OUT}/results.csv"
+}
+
+cd "$ROOT"
+BASELINE=$(mktemp -d)
+trap 'rm -rf "$BASELINE"' EXIT
+./mvnw -B -q clean package -DskipTests
+cp "target/${JAR_NAME}" "$BASELINE/"
+
+# The CDS archive records the jar paths and timestamps, so the -Pstartup build is run where it was built.
+./mvnw -B -q clean package -DskipTests -Pstartup
+mkdir -p "$OUT"
+
+echo "variant,run,started_s,ready_ms,first_request_s" >"${OUT}/results.csv"
+printf '%-10s %4s %12s %14s %18s\n' variant run "started (s)" "ready (ms)" "first request (s)"
+for i in $(seq 1 "$RUNS"); do
+    run baseline "$i" "$BASELINE" -jar "$JAR_NAME"
+    run startup "$i" "${ROOT}/target" -XX:SharedArchiveFile=campus-api.jsa -Dspring.aot.enabled=true -jar "$JAR_NAME"
+done
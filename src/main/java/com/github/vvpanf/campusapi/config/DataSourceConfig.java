@@ -0,0 +1,76 @@
+package com.github.vvpanf.campusapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.callback.Callback;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Enabled when {@code campus.datasource.replica.url} is set. The routing data source is wrapped
+ * into a lazy proxy, so the physical connection is taken only after the transaction has been
+ * marked read-only or read-write. With {@code campus.datasource.replica.migrate} the replica is
+ * migrated with the Flyway locations and callbacks of the primary on startup, for a local replica
+ * that has no replication of its own.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "campus.datasource.replica", name = "url")
+public class DataSourceConfig {
+
+    /**
+     * The pools are beans of their own so that they are closed with the context; the routing proxy has no close.
+     */
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${campus.datasource.replica.url}") String replicaUrl,
+                                              @Value("${campus.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+                                              @Value("${campus.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+                                              @Value("${campus.datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+                                              @Value("${campus.datasource.replica.migrate:false}") boolean migrateReplica,
+                                              @Value("${spring.flyway.locations:classpath:db/migration}") String[] flywayLocations,
+                                              ObjectProvider<Callback> flywayCallbacks) {
+        if (migrateReplica) {
+            Flyway.configure().dataSource(replicaUrl, replicaUsername, replicaPassword).locations(flywayLocations)
+                    .callbacks(flywayCallbacks.orderedStream().toArray(Callback[]::new)).load().migrate();
+        }
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setMaximumPoolSize(replicaPoolSize);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica) {
+        ReadOnlyRoutingDataSource routing = new ReadOnlyRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadOnlyRoutingDataSource.Route.PRIMARY, primary,
+                ReadOnlyRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.vvpanf.campusapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+@Configuration
+public class HttpCacheConfig {
+    @Bean
+    public CacheControl resourceCacheControl(@Value("${campus.http.cache.max-age:5s}") Duration maxAge) {
+        return CacheControl.maxAge(maxAge).mustRevalidate();
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.vvpanf.campusapi.config;
+
+import com.github.vvpanf.campusapi.controller.RequestCostInterceptor;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "campus.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+    RequestCostInterceptor requestCostInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestCostInterceptor).addPathPatterns("/campuses/**", "/users/**", "/analytics/**", "/changes");
+    }
+}
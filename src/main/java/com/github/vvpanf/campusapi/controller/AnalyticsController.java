@@ -0,0 +1,78 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.dto.UsageDto;
+import com.github.vvpanf.campusapi.entity.UsageRollup;
+import com.github.vvpanf.campusapi.service.UsageRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@Tag(name = "Analytics", description = "Room and campus utilization APIs")
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AnalyticsController {
+    final String DEFAULT_PERIOD = "DAY";
+    UsageRollupService usageRollupService;
+
+    @Operation(
+            summary = "Retrieve booked minutes of Campus by day or week",
+            tags = { "analytics", "campuses", "get", "usage" },
+            parameters = {
+                    @Parameter(name = "dateFrom", description = "First date of the range"),
+                    @Parameter(name = "dateTo", description = "Last date of the range"),
+                    @Parameter(name = "period", description = "DAY or WEEK")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(array = @ArraySchema(schema = @Schema(implementation = UsageDto.class)), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping("/campuses/{campus-id}/usage")
+    public ResponseEntity<?> getCampusUsage(
+            @PathVariable("campus-id") Long campusId,
+            @RequestParam(value = "dateFrom") LocalDate dateFrom,
+            @RequestParam(value = "dateTo") LocalDate dateTo,
+            @RequestParam(value = "period", defaultValue = DEFAULT_PERIOD, required = false) UsageRollup.Period period
+    ) {
+        return ResponseEntity.ok(usageRollupService.getUsage(UsageRollup.Scope.CAMPUS, campusId, period, dateFrom, dateTo));
+    }
+
+    @Operation(
+            summary = "Retrieve booked minutes of Room by day or week",
+            tags = { "analytics", "rooms", "get", "usage" },
+            parameters = {
+                    @Parameter(name = "dateFrom", description = "First date of the range"),
+                    @Parameter(name = "dateTo", description = "Last date of the range"),
+                    @Parameter(name = "period", description = "DAY or WEEK")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(array = @ArraySchema(schema = @Schema(implementation = UsageDto.class)), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping("/rooms/{room-id}/usage")
+    public ResponseEntity<?> getRoomUsage(
+            @PathVariable("room-id") Long roomId,
+            @RequestParam(value = "dateFrom") LocalDate dateFrom,
+            @RequestParam(value = "dateTo") LocalDate dateTo,
+            @RequestParam(value = "period", defaultValue = DEFAULT_PERIOD, required = false) UsageRollup.Period period
+    ) {
+        return ResponseEntity.ok(usageRollupService.getUsage(UsageRollup.Scope.ROOM, roomId, period, dateFrom, dateTo));
+    }
+}
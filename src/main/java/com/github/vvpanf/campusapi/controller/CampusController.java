@@ -1,12 +1,24 @@
 package com.github.vvpanf.campusapi.controller;
 
+import com.github.vvpanf.campusapi.dto.AvailabilityDeltaDto;
+import com.github.vvpanf.campusapi.dto.AvailabilityMatrixDto;
 import com.github.vvpanf.campusapi.dto.CampusDto;
+import com.github.vvpanf.campusapi.dto.MultiGetDto;
+import com.github.vvpanf.campusapi.dto.PageDto;
 import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.dto.RoomSearchDto;
+import com.github.vvpanf.campusapi.dto.TimetableRoomDto;
+import com.github.vvpanf.campusapi.service.AvailabilityFeedService;
+import com.github.vvpanf.campusapi.service.AvailabilityMatrixService;
 import com.github.vvpanf.campusapi.service.CampusService;
 import com.github.vvpanf.campusapi.service.ReservationService;
+import com.github.vvpanf.campusapi.service.ResourceVersionService;
+import com.github.vvpanf.campusapi.service.RoomMatchService;
+import com.github.vvpanf.campusapi.service.RoomSearchService;
 import com.github.vvpanf.campusapi.service.RoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,13 +28,21 @@ import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
 
 @Tag(name = "Campus", description = "Campus management APIs")
 @RestController
@@ -35,6 +55,13 @@ public class CampusController {
     CampusService campusService;
     RoomService roomService;
     ReservationService reservationService;
+    Paging paging;
+    ResourceVersionService resourceVersionService;
+    RoomMatchService roomMatchService;
+    AvailabilityMatrixService availabilityMatrixService;
+    RoomSearchService roomSearchService;
+    AvailabilityFeedService availabilityFeedService;
+    CacheControl resourceCacheControl;
 
     @Operation(
             summary = "Retrieve a Campuses by page or by name",
@@ -42,23 +69,29 @@ public class CampusController {
             parameters = {
                     @Parameter(name = "page", description = "Number of page"),
                     @Parameter(name = "count", description = "Items count on page"),
-                    @Parameter(name = "name", description = "Name of campus")
+                    @Parameter(name = "name", description = "Name of campus"),
+                    @Parameter(name = "fields", description = "Comma separated Campus fields to return; id is always returned")
             }
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = Page.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = PageDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
     })
     @GetMapping
     public ResponseEntity<?> getCampuses(
             @RequestParam(value = "page", defaultValue = DEFAULT_PAGE, required = false) Integer page,
             @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count,
-            @RequestParam(value = "name", required = false) String name
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "fields", required = false) List<String> fields
     ) {
         if (name != null) {
             return ResponseEntity.ofNullable(campusService.getCampusByName(name));
         }
-        return ResponseEntity.ok(campusService.getAllCampuses(PageRequest.of(page, count)));
+        if (fields != null) {
+            return ResponseEntity.ok(PageDto.of(campusService.getAllCampuses(paging.of(page, count), fields)));
+        }
+        return ResponseEntity.ok(PageDto.of(campusService.getAllCampuses(paging.of(page, count))));
     }
 
     @Operation(
@@ -67,12 +100,14 @@ public class CampusController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = CampusDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "304", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
     })
     @GetMapping("/{campus-id}")
-    public ResponseEntity<?> getCampus(@PathVariable("campus-id") Long campusId) {
-        return ResponseEntity.ofNullable(campusService.getCampusById(campusId));
+    public ResponseEntity<?> getCampus(@PathVariable("campus-id") Long campusId, WebRequest request) {
+        return conditionalGet(request, resourceVersionService.getCampusVersion(campusId),
+                () -> campusService.getCampusById(campusId));
     }
 
     @Operation(
@@ -102,11 +137,14 @@ public class CampusController {
                     @Parameter(name = "reservationDate", description = "Date of room reservation"),
                     @Parameter(name = "availableFrom", description = "Time of reservation room available from"),
                     @Parameter(name = "availableUntil", description = "Time of reservation room available until"),
-                    @Parameter(name = "minNumberOfSeats", description = "Minimal number of seats in the room")
+                    @Parameter(name = "minNumberOfSeats", description = "Minimal number of seats in the room"),
+                    @Parameter(name = "ids", description = "Comma separated Room ids; returns these Rooms in the same order instead of a page")
             }
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = Page.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(oneOf = {PageDto.class, MultiGetDto.class}), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
     })
     @GetMapping("/{campus-id}/rooms")
@@ -117,13 +155,155 @@ public class CampusController {
             @RequestParam(value = "reservationDate", required = false) LocalDate reservationDate,
             @RequestParam(value = "availableFrom", required = false) LocalTime availableFrom,
             @RequestParam(value = "availableUntil", required = false) LocalTime availableUntil,
-            @RequestParam(value = "minNumberOfSeats", required = false) Integer minNumberOfSeats
+            @RequestParam(value = "minNumberOfSeats", required = false) Integer minNumberOfSeats,
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            WebRequest request
             ) {
+        if (ids != null) {
+            return conditionalGet(request, resourceVersionService.getCampusRoomsVersion(campusId),
+                    () -> roomService.getRoomsByCampusIdAndIds(campusId, ids));
+        }
         if (reservationDate == null && availableFrom == null && availableUntil == null && minNumberOfSeats == null) {
-            return ResponseEntity.ok(roomService.getRoomsByCampusId(campusId, PageRequest.of(page, count)));
+            return conditionalGet(request, resourceVersionService.getCampusRoomsVersion(campusId),
+                    () -> PageDto.of(roomService.getRoomsByCampusId(campusId, paging.of(page, count))));
         }
-        return ResponseEntity.ok(roomService.getRoomsFiltered(campusId, PageRequest.of(page, count),
-                new RoomService.RoomSearchParams(reservationDate, availableFrom, availableUntil, minNumberOfSeats)));
+        return ResponseEntity.ok(PageDto.of(roomService.getRoomsFiltered(campusId, paging.of(page, count),
+                new RoomService.RoomSearchParams(reservationDate, availableFrom, availableUntil, minNumberOfSeats))));
+    }
+
+    @Operation(
+            summary = "Retrieve a timetable of Campus: all Rooms with their Reservations in the date range",
+            tags = { "rooms", "reservations", "get", "timetable" },
+            parameters = {
+                    @Parameter(name = "dateFrom", description = "First date of the range"),
+                    @Parameter(name = "dateTo", description = "Last date of the range, at most 31 days after dateFrom")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(array = @ArraySchema(schema = @Schema(implementation = TimetableRoomDto.class)), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping("/{campus-id}/timetable")
+    public ResponseEntity<?> getCampusTimetable(
+            @PathVariable("campus-id") Long campusId,
+            @RequestParam(value = "dateFrom") LocalDate dateFrom,
+            @RequestParam(value = "dateTo") LocalDate dateTo
+    ) {
+        return ResponseEntity.ok(roomService.getCampusTimetable(campusId, dateFrom, dateTo));
+    }
+
+    @Operation(
+            summary = "Search Rooms of Campus with counts by type and capacity band",
+            tags = { "rooms", "get", "page", "search", "type", "capacity", "available" },
+            parameters = {
+                    @Parameter(name = "page", description = "Number of page"),
+                    @Parameter(name = "count", description = "Items count on page"),
+                    @Parameter(name = "type", description = "Type of room"),
+                    @Parameter(name = "minCapacity", description = "Minimal number of seats in the room"),
+                    @Parameter(name = "maxCapacity", description = "Maximal number of seats in the room"),
+                    @Parameter(name = "reservationDate", description = "Date of room reservation"),
+                    @Parameter(name = "availableFrom", description = "Time of reservation room available from"),
+                    @Parameter(name = "availableUntil", description = "Time of reservation room available until")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = RoomSearchDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping("/{campus-id}/rooms/search")
+    public ResponseEntity<?> searchCampusRooms(
+            @PathVariable("campus-id") Long campusId,
+            @RequestParam(value = "page", defaultValue = DEFAULT_PAGE, required = false) Integer page,
+            @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "minCapacity", required = false) Integer minCapacity,
+            @RequestParam(value = "maxCapacity", required = false) Integer maxCapacity,
+            @RequestParam(value = "reservationDate", required = false) LocalDate reservationDate,
+            @RequestParam(value = "availableFrom", required = false) LocalTime availableFrom,
+            @RequestParam(value = "availableUntil", required = false) LocalTime availableUntil
+    ) {
+        RoomSearchDto result = roomSearchService.searchRooms(campusId, paging.of(page, count),
+                new RoomSearchService.FacetSearchParams(type, minCapacity, maxCapacity, reservationDate, availableFrom, availableUntil));
+        return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+            summary = "Pick the smallest free Room (or the fewest free Rooms) seating the people count",
+            tags = { "rooms", "get", "match", "peopleCount" },
+            parameters = {
+                    @Parameter(name = "reservationDate", description = "Date of room reservation"),
+                    @Parameter(name = "startTime", description = "Start time of reservation"),
+                    @Parameter(name = "endTime", description = "End time of reservation"),
+                    @Parameter(name = "peopleCount", description = "Number of people to seat")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(array = @ArraySchema(schema = @Schema(implementation = RoomDto.class)), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping("/{campus-id}/rooms/match")
+    public ResponseEntity<?> matchCampusRooms(
+            @PathVariable("campus-id") Long campusId,
+            @RequestParam(value = "reservationDate") LocalDate reservationDate,
+            @RequestParam(value = "startTime") LocalTime startTime,
+            @RequestParam(value = "endTime") LocalTime endTime,
+            @RequestParam(value = "peopleCount") Integer peopleCount
+    ) {
+        List<RoomDto> result = roomMatchService.matchRooms(campusId, reservationDate, startTime, endTime, peopleCount);
+        return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+            summary = "Retrieve which Rooms of Campus are free in the time window on each date of the range",
+            tags = { "rooms", "get", "availability", "matrix" },
+            parameters = {
+                    @Parameter(name = "dateFrom", description = "First date of the range"),
+                    @Parameter(name = "dateTo", description = "Last date of the range, at most 92 days after dateFrom"),
+                    @Parameter(name = "startTime", description = "Start time of the window"),
+                    @Parameter(name = "endTime", description = "End time of the window"),
+                    @Parameter(name = "roomIds", description = "Comma separated Room ids; all Rooms of Campus when omitted")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = AvailabilityMatrixDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping("/{campus-id}/rooms/availability-matrix")
+    public ResponseEntity<?> getCampusAvailabilityMatrix(
+            @PathVariable("campus-id") Long campusId,
+            @RequestParam(value = "dateFrom") LocalDate dateFrom,
+            @RequestParam(value = "dateTo") LocalDate dateTo,
+            @RequestParam(value = "startTime") LocalTime startTime,
+            @RequestParam(value = "endTime") LocalTime endTime,
+            @RequestParam(value = "roomIds", required = false) List<Long> roomIds
+    ) {
+        AvailabilityMatrixDto result = availabilityMatrixService.getMatrix(campusId, roomIds, dateFrom, dateTo, startTime, endTime);
+        return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+            summary = "Subscribe to Rooms of Campus becoming busy",
+            description = "Server-sent events named availability, each carrying the Rooms reserved during the last coalescing window",
+            tags = { "rooms", "get", "availability", "stream" }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(array = @ArraySchema(schema = @Schema(implementation = AvailabilityDeltaDto.class)), mediaType = "text/event-stream")}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping(value = "/{campus-id}/rooms/availability", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCampusRoomAvailability(@PathVariable("campus-id") Long campusId) {
+        if (resourceVersionService.getCampusVersion(campusId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(availabilityFeedService.subscribe(campusId));
     }
 
     @Operation(
@@ -132,15 +312,18 @@ public class CampusController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = RoomDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "304", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
     })
     @GetMapping("/{campus-id}/rooms/{room-id}")
     public ResponseEntity<?> getCampusClassroom(
             @PathVariable("campus-id") Long campusId,
-            @PathVariable("room-id") Long roomId
+            @PathVariable("room-id") Long roomId,
+            WebRequest request
     ) {
-        return ResponseEntity.ofNullable(roomService.getRoomByIdAndCampusId(campusId, roomId));
+        return conditionalGet(request, resourceVersionService.getRoomVersion(campusId, roomId),
+                () -> roomService.getRoomByIdAndCampusId(campusId, roomId));
     }
 
     @Operation(
@@ -169,11 +352,12 @@ public class CampusController {
             tags = { "reservations", "rooms", "get", "page" },
             parameters = {
                     @Parameter(name = "page", description = "Number of page"),
-                    @Parameter(name = "count", description = "Items count on page")
+                    @Parameter(name = "count", description = "Items count on page"),
+                    @Parameter(name = "includeArchived", description = "Include archived past reservations")
             }
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = Page.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = PageDto.class), mediaType = "application/json")}),
             @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
     })
     @GetMapping("/{campus-id}/rooms/{room-id}/reservations")
@@ -181,8 +365,84 @@ public class CampusController {
             @PathVariable("campus-id") Long campusId,
             @PathVariable("room-id") Long roomId,
             @RequestParam(value = "page", defaultValue = DEFAULT_PAGE, required = false) Integer page,
-            @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count
+            @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count,
+            @RequestParam(value = "includeArchived", defaultValue = "false", required = false) Boolean includeArchived
     ) {
-        return ResponseEntity.ok(reservationService.getReservationsByCampusIdAndRoomId(campusId, roomId, PageRequest.of(page, count)));
+        if (includeArchived) {
+            return ResponseEntity.ok(PageDto.of(reservationService.getReservationHistoryByCampusIdAndRoomId(campusId, roomId, paging.of(page, count))));
+        }
+        return ResponseEntity.ok(PageDto.of(reservationService.getReservationsByCampusIdAndRoomId(campusId, roomId, paging.of(page, count))));
+    }
+
+    @Operation(
+            summary = "Delete a Campus with all its Rooms",
+            tags = { "campuses", "delete" }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @DeleteMapping("/{campus-id}")
+    public ResponseEntity<?> deleteCampus(@PathVariable("campus-id") Long campusId) {
+        return campusService.deleteCampus(campusId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+            summary = "Delete a Room of Campus",
+            tags = { "rooms", "delete" }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @DeleteMapping("/{campus-id}/rooms/{room-id}")
+    public ResponseEntity<?> deleteCampusRoom(@PathVariable("campus-id") Long campusId,
+                                              @PathVariable("room-id") Long roomId) {
+        return roomService.deleteRoom(campusId, roomId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    private ResponseEntity<?> conditionalGet(WebRequest request, ResourceVersionService.ResourceVersion version, Supplier<?> body) {
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = version.etag() + "-" + representation(request);
+        long lastModified = version.lastModified() == null ? -1 : version.lastModified().toEpochMilli();
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(resourceCacheControl).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        Object result = body.get();
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(resourceCacheControl)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response.body(result);
+    }
+
+    /**
+     * Part of the ETag that tells the JSON and CBOR representations apart, so a validator of one is never
+     * taken for the other: {@code cbor} when the most preferred type in {@code Accept} that the message
+     * converters can serve is CBOR, {@code json} otherwise, as for a missing or wildcard {@code Accept}.
+     */
+    private String representation(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) return "json";
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .filter(type -> type.getQualityValue() > 0)
+                    .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                    .filter(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON) || type.isCompatibleWith(MediaType.APPLICATION_CBOR))
+                    .findFirst()
+                    .filter(type -> !type.isCompatibleWith(MediaType.APPLICATION_JSON))
+                    .map(type -> "cbor")
+                    .orElse("json");
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.dto.ChangesDto;
+import com.github.vvpanf.campusapi.service.ChangeLogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+
+@Tag(name = "Changes", description = "Delta sync APIs")
+@RestController
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ChangesController {
+    final String DEFAULT_COUNT = "100";
+    ChangeLogService changeLogService;
+    Paging paging;
+
+    @Operation(
+            summary = "Retrieve Campuses, Rooms and Reservations changed or deleted since a sync token",
+            description = "Without since returns only the current token, to be taken before a full download",
+            tags = { "changes", "get", "sync" },
+            parameters = {
+                    @Parameter(name = "since", description = "Token from the previous response"),
+                    @Parameter(name = "count", description = "Max change log entries to read")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = ChangesDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @GetMapping
+    public ResponseEntity<?> getChanges(
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count
+    ) {
+        if (since == null) {
+            return ResponseEntity.ok(new ChangesDto(changeLogService.getLatestToken(), false,
+                    Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList()));
+        }
+        return ResponseEntity.ok(changeLogService.getChanges(since, paging.of(0, count).getPageSize()));
+    }
+}
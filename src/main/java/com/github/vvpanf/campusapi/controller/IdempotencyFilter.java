@@ -0,0 +1,237 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.service.IdempotencyEntry;
+import com.github.vvpanf.campusapi.service.IdempotencyStore;
+import com.github.vvpanf.campusapi.service.IdempotentResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays the stored response of a POST retried with the same {@code Idempotency-Key} without calling
+ * the controller. The first request claims the key in the store before it runs, so a retry arriving
+ * meanwhile, on this or another node, waits for its response. Only successful responses and client
+ * errors that a retry would get again are stored; after a server error, a conflict or a rate limit
+ * rejection the claim is dropped and the request can be retried with the same key. A key reused with
+ * another request body is rejected.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final List<String> PATHS = List.of("/users", "/users/*/reservations", "/campuses/*/rooms");
+    private static final Set<Integer> TRANSIENT_CLIENT_ERRORS = Set.of(
+            HttpStatus.REQUEST_TIMEOUT.value(), HttpStatus.CONFLICT.value(), HttpStatus.TOO_EARLY.value(),
+            HttpStatus.TOO_MANY_REQUESTS.value());
+
+    private final IdempotencyStore idempotencyStore;
+    private final Duration waitTimeout;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore,
+                             @Value("${campus.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.idempotencyStore = idempotencyStore;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY) == null) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + IDEMPOTENCY_KEY);
+            return;
+        }
+        String key = request.getRequestURI() + " " + idempotencyKey;
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = sha256(cachedRequest.body);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Optional<IdempotencyEntry> stored = idempotencyStore.find(key);
+            if (stored.isEmpty()) {
+                if (idempotencyStore.reserve(key, requestHash)) {
+                    execute(key, requestHash, cachedRequest, response, filterChain);
+                    return;
+                }
+                continue;
+            }
+            if (!stored.get().requestHash().equals(requestHash)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), IDEMPOTENCY_KEY + " is already used with another request body");
+                return;
+            }
+            if (!stored.get().isPending()) {
+                replay(stored.get().response(), response);
+                return;
+            }
+            if (!awaitRunning(key, deadline)) {
+                response.setStatus(HttpStatus.CONFLICT.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(waitTimeout.toSeconds()));
+                return;
+            }
+        }
+    }
+
+    private void execute(String key, String requestHash, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        CompletableFuture<Void> running = new CompletableFuture<>();
+        inFlight.put(key, running);
+        boolean saved = false;
+        try {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (isReplayable(wrapper.getStatus())) {
+                idempotencyStore.save(key, requestHash, new IdempotentResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray()));
+                saved = true;
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            try {
+                if (!saved) idempotencyStore.release(key);
+            } finally {
+                inFlight.remove(key, running);
+                running.complete(null);
+            }
+        }
+    }
+
+    private boolean isReplayable(int status) {
+        HttpStatusCode statusCode = HttpStatusCode.valueOf(status);
+        return statusCode.is2xxSuccessful() || statusCode.is4xxClientError() && !TRANSIENT_CLIENT_ERRORS.contains(status);
+    }
+
+    /**
+     * Waits for the request that claimed the key: on its future when it runs on this node, otherwise one poll
+     * interval before the store is read again. Returns {@code false} once the deadline has passed.
+     */
+    private boolean awaitRunning(String key, long deadline) throws ServletException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) return false;
+        CompletableFuture<Void> running = inFlight.get(key);
+        try {
+            if (running != null) {
+                running.get(remaining, TimeUnit.NANOSECONDS);
+            } else {
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MS)));
+            }
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        } catch (ExecutionException e) {
+            throw new ServletException(e.getCause());
+        }
+    }
+
+    private void replay(IdempotentResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        if (stored.location() != null) response.setHeader(HttpHeaders.LOCATION, stored.location());
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the body up front, so it can be hashed before the request runs and still be read by the controller.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
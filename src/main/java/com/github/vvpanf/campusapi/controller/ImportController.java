@@ -0,0 +1,85 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.dto.ImportResultDto;
+import com.github.vvpanf.campusapi.service.CsvImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@Tag(name = "Import", description = "Bulk CSV import APIs")
+@RestController
+@RequestMapping("/imports")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ImportController {
+    private static final String TEXT_CSV = "text/csv";
+    CsvImportService csvImportService;
+
+    @Operation(
+            summary = "Import Users from CSV",
+            tags = { "import", "users", "post" },
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Header full_name,date_of_birth,email followed by one User per line",
+                    content = @Content(schema = @Schema(type = "string"), mediaType = TEXT_CSV),
+                    required = true
+            )
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = ImportResultDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @PostMapping(value = "/users", consumes = TEXT_CSV)
+    public ResponseEntity<?> importUsers(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(csvImportService.importUsers(request.getInputStream()));
+    }
+
+    @Operation(
+            summary = "Import Rooms from CSV",
+            tags = { "import", "rooms", "post" },
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Header campus_id,number,type,capacity followed by one Room per line",
+                    content = @Content(schema = @Schema(type = "string"), mediaType = TEXT_CSV),
+                    required = true
+            )
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = ImportResultDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @PostMapping(value = "/rooms", consumes = TEXT_CSV)
+    public ResponseEntity<?> importRooms(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(csvImportService.importRooms(request.getInputStream()));
+    }
+
+    @Operation(
+            summary = "Import Reservations from CSV",
+            tags = { "import", "reservations", "post" },
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Header user_id,date_of_reserv,start_time,end_time,comment,people_count followed by one Reservation per line",
+                    content = @Content(schema = @Schema(type = "string"), mediaType = TEXT_CSV),
+                    required = true
+            )
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = ImportResultDto.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @PostMapping(value = "/reservations", consumes = TEXT_CSV)
+    public ResponseEntity<?> importReservations(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(csvImportService.importReservations(request.getInputStream()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds page requests from the {@code page}/{@code count} query parameters, capping the page size
+ * at {@code campus.paging.max-count}.
+ */
+@Component
+public class Paging {
+    private final int maxCount;
+
+    public Paging(@Value("${campus.paging.max-count:100}") int maxCount) {
+        this.maxCount = maxCount;
+    }
+
+    public PageRequest of(Integer page, Integer count) {
+        if (page < 0) throw new ValidationException("Номер страницы не может быть отрицательным");
+        if (count < 1) throw new ValidationException("Количество элементов на странице должно быть больше нуля");
+        return PageRequest.of(page, cap(count));
+    }
+
+    public int cap(int count) {
+        return Math.min(count, maxCount);
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.event.CampusChangedEvent;
+import com.github.vvpanf.campusapi.event.ReservationRoomAddedEvent;
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import com.github.vvpanf.campusapi.event.RoomChangedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs identical concurrent GETs of room lists once. The first request is executed, requests with the
+ * same path, parameters and content negotiation headers arriving while it runs wait for it and get a
+ * copy of its response bytes and representation headers. Headers about the client, such as cookies or
+ * limits, are not copied; filters running before this one set them on each response. With {@code campus.coalescing.micro-cache-ttl} above zero a successful
+ * response is also served to identical requests for that long after it completes, until a change of the
+ * rooms or reservations of the campus commits on this node.
+ * Only {@code 200} responses are shared; after any other status the waiting requests run on their own.
+ * Waiting requests do no database work and are not charged by the request cost limiter.
+ */
+@Component
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+    public static final String COALESCED = "Coalesced";
+    private static final int MAX_ENTRIES = 10000;
+    private static final List<String> PATHS = List.of("/campuses/*/rooms", "/campuses/*/rooms/search", "/campuses/*/rooms/match",
+            "/campuses/*/rooms/availability-matrix");
+    private static final List<String> KEY_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final List<String> REPRESENTATION_HEADERS = List.of(HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.VARY,
+            HttpHeaders.CACHE_CONTROL, HttpHeaders.CONTENT_ENCODING);
+
+    private final boolean enabled;
+    private final Duration waitTimeout;
+    private final long microCacheNanos;
+    private final int maxEntries;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RequestCoalescingFilter(@Value("${campus.coalescing.enabled:true}") boolean enabled,
+                                   @Value("${campus.coalescing.wait-timeout:5s}") Duration waitTimeout,
+                                   @Value("${campus.coalescing.micro-cache-ttl:0ms}") Duration microCacheTtl) {
+        this(enabled, waitTimeout, microCacheTtl, MAX_ENTRIES);
+    }
+
+    RequestCoalescingFilter(boolean enabled, Duration waitTimeout, Duration microCacheTtl, int maxEntries) {
+        this.enabled = enabled;
+        this.waitTimeout = waitTimeout;
+        this.microCacheNanos = microCacheTtl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !HttpMethod.GET.matches(request.getMethod())) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = key(request);
+        while (true) {
+            CompletableFuture<SharedResponse> running = new CompletableFuture<>();
+            CompletableFuture<SharedResponse> first = inFlight.putIfAbsent(key, running);
+            if (first == null) {
+                execute(key, running, request, response, filterChain);
+                return;
+            }
+            SharedResponse done = first.getNow(null);
+            if (first.isDone() && (done == null || done.isExpired())) {
+                inFlight.remove(key, first);
+                continue;
+            }
+            SharedResponse shared = await(first);
+            if (shared == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            replay(shared, response);
+            return;
+        }
+    }
+
+    private void execute(String key, CompletableFuture<SharedResponse> running, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SharedResponse result = null;
+        try {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpStatus.OK.value() && !request.isAsyncStarted()) {
+                Map<String, List<String>> headers = new LinkedHashMap<>();
+                for (String name : REPRESENTATION_HEADERS) {
+                    if (wrapper.containsHeader(name)) headers.put(name, List.copyOf(wrapper.getHeaders(name)));
+                }
+                result = new SharedResponse(wrapper.getContentType(), headers, wrapper.getContentAsByteArray(),
+                        System.nanoTime() + microCacheNanos);
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            if (result == null || microCacheNanos <= 0) {
+                inFlight.remove(key, running);
+            } else if (inFlight.size() > maxEntries) {
+                inFlight.values().removeIf(future -> future.isDone() && (future.getNow(null) == null || future.getNow(null).isExpired()));
+            }
+            running.complete(result);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        evictCampus(event.campusId());
+    }
+
+    @TransactionalEventListener
+    public void onCampusChanged(CampusChangedEvent event) {
+        evictCampus(event.campusId());
+    }
+
+    @TransactionalEventListener
+    public void onReservationRoomAdded(ReservationRoomAddedEvent event) {
+        evictCampus(event.campusId());
+    }
+
+    @TransactionalEventListener
+    public void onReservationRoomRemoved(ReservationRoomRemovedEvent event) {
+        evictCampus(event.campusId());
+    }
+
+    int getEntryCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Drops kept and running responses of the room lists of the campus; requests already waiting for a
+     * running one still get it.
+     */
+    private void evictCampus(Long campusId) {
+        if (microCacheNanos <= 0) return;
+        String path = "/campuses/" + campusId + "/rooms";
+        inFlight.keySet().removeIf(key -> key.contains(path));
+    }
+
+    private SharedResponse await(CompletableFuture<SharedResponse> first) throws ServletException {
+        try {
+            return first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        } catch (ExecutionException e) {
+            throw new ServletException(e.getCause());
+        }
+    }
+
+    private void replay(SharedResponse shared, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        shared.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(COALESCED, "true");
+        if (shared.contentType() != null) response.setContentType(shared.contentType());
+        response.setContentLength(shared.body().length);
+        response.getOutputStream().write(shared.body());
+    }
+
+    /**
+     * Path, parameters sorted by name with their values in request order, and the headers the
+     * response depends on.
+     */
+    private String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+                key.append('&').append(name).append('=').append(Arrays.toString(values)));
+        for (String header : KEY_HEADERS) {
+            key.append('\n').append(request.getHeader(header));
+        }
+        return key.toString();
+    }
+
+    private record SharedResponse(String contentType, Map<String, List<String>> headers, byte[] body, long expiresAt) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.service.RequestCostLimiter;
+import com.github.vvpanf.campusapi.service.ScannedRows;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RequestCostInterceptor implements AsyncHandlerInterceptor {
+    RequestCostLimiter requestCostLimiter;
+    Paging paging;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String client = request.getRemoteAddr();
+        long rows = 1 + requestedRows(request);
+        if (!requestCostLimiter.tryAcquire(client, rows)) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(requestCostLimiter.secondsUntilAvailable(client, rows)));
+            return false;
+        }
+        ScannedRows.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        requestCostLimiter.charge(request.getRemoteAddr(), ScannedRows.finish());
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        requestCostLimiter.charge(request.getRemoteAddr(), ScannedRows.finish());
+    }
+
+    private int requestedRows(HttpServletRequest request) {
+        String count = request.getParameter("count");
+        if (count == null) return 0;
+        try {
+            return Math.max(0, paging.cap(Integer.parseInt(count)));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
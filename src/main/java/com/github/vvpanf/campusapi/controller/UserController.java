@@ -1,6 +1,8 @@
 package com.github.vvpanf.campusapi.controller;
 
 import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.MultiGetDto;
+import com.github.vvpanf.campusapi.dto.PageDto;
 import com.github.vvpanf.campusapi.dto.ReservationDto;
 import com.github.vvpanf.campusapi.dto.UserDto;
 import com.github.vvpanf.campusapi.service.ReservationService;
@@ -16,11 +18,11 @@ import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Tag(name = "User", description = "User management APIs")
 @RestController
 @RequestMapping("/users")
@@ -29,8 +31,10 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
     final String DEFAULT_PAGE = "0";
     final String DEFAULT_COUNT = "10";
+    final String EXPAND_ROOMS = "rooms";
     UserService userService;
     ReservationService reservationService;
+    Paging paging;
 
     @Operation(
             summary = "Retrieve a Users by page or by matches name",
@@ -38,23 +42,34 @@ public class UserController {
             parameters = {
                     @Parameter(name = "page", description = "Number of page"),
                     @Parameter(name = "count", description = "Items count on page"),
-                    @Parameter(name = "nameMatches", description = "Part of user name")
+                    @Parameter(name = "nameMatches", description = "Part of user name"),
+                    @Parameter(name = "ids", description = "Comma separated User ids; returns these Users in the same order instead of a page"),
+                    @Parameter(name = "fields", description = "Comma separated User fields to return; id is always returned")
             }
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = Page.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(oneOf = {PageDto.class, MultiGetDto.class}), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
     })
     @GetMapping
     public ResponseEntity<?> getAllUsers(
             @RequestParam(value = "page", defaultValue = DEFAULT_PAGE, required = false) Integer page,
             @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count,
-            @RequestParam(value = "nameMatches", required = false) String nameMatches
+            @RequestParam(value = "nameMatches", required = false) String nameMatches,
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "fields", required = false) List<String> fields
     ) {
+        if (ids != null) {
+            return ResponseEntity.ok(userService.getUsersByIds(ids));
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(PageDto.of(userService.getUsers(nameMatches, paging.of(page, count), fields)));
+        }
         if (nameMatches != null) {
-            return ResponseEntity.ok(userService.getUsersByNameMatches(nameMatches, PageRequest.of(page, count)));
+            return ResponseEntity.ok(PageDto.of(userService.getUsersByNameMatches(nameMatches, paging.of(page, count))));
         }
-        return ResponseEntity.ok(userService.getAllUsers(PageRequest.of(page, count)));
+        return ResponseEntity.ok(PageDto.of(userService.getAllUsers(paging.of(page, count))));
     }
 
     @Operation(
@@ -94,20 +109,43 @@ public class UserController {
             tags = { "reservations", "get", "page", "count" },
             parameters = {
                     @Parameter(name = "page", description = "Number of page"),
-                    @Parameter(name = "count", description = "Items count on page")
+                    @Parameter(name = "count", description = "Items count on page"),
+                    @Parameter(name = "includeArchived", description = "Include archived past reservations"),
+                    @Parameter(name = "ids", description = "Comma separated Reservation ids; returns these Reservations in the same order instead of a page"),
+                    @Parameter(name = "expand", description = "rooms: include number, type and campus of the rooms of each Reservation"),
+                    @Parameter(name = "fields", description = "Comma separated Reservation fields to return; id is always returned. Not combined with includeArchived and expand")
             }
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = Page.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(oneOf = {PageDto.class, MultiGetDto.class}), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
     })
     @GetMapping("/{user-id}/reservations")
     public ResponseEntity<?> getUserReservations(
             @PathVariable("user-id") Long userId,
             @RequestParam(value = "page", defaultValue = DEFAULT_PAGE, required = false) Integer page,
-            @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count
+            @RequestParam(value = "count", defaultValue = DEFAULT_COUNT, required = false) Integer count,
+            @RequestParam(value = "includeArchived", defaultValue = "false", required = false) Boolean includeArchived,
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "expand", required = false) String expand,
+            @RequestParam(value = "fields", required = false) List<String> fields
     ) {
-        return ResponseEntity.ok(reservationService.getReservationsByUserId(userId, PageRequest.of(page, count)));
+        if (ids != null) {
+            return ResponseEntity.ok(reservationService.getReservationsByUserIdAndIds(userId, ids));
+        }
+        if (fields != null) {
+            if (includeArchived || expand != null) throw new ValidationException("Параметр fields нельзя использовать вместе с includeArchived и expand");
+            return ResponseEntity.ok(PageDto.of(reservationService.getReservationsByUserId(userId, paging.of(page, count), fields)));
+        }
+        if (expand != null) {
+            if (!EXPAND_ROOMS.equals(expand)) throw new ValidationException("Неизвестное значение expand: " + expand);
+            return ResponseEntity.ok(PageDto.of(reservationService.getReservationsWithRoomsByUserId(userId, paging.of(page, count), includeArchived)));
+        }
+        if (includeArchived) {
+            return ResponseEntity.ok(PageDto.of(reservationService.getReservationHistoryByUserId(userId, paging.of(page, count))));
+        }
+        return ResponseEntity.ok(PageDto.of(reservationService.getReservationsByUserId(userId, paging.of(page, count))));
     }
 
     @Operation(
@@ -160,8 +198,32 @@ public class UserController {
         return ResponseEntity.status(201).build();
     }
 
-    @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<?> handleException(ValidationException e) {
-        return ResponseEntity.badRequest().body(e.getMessage());
+    @Operation(
+            summary = "Delete a User with all its Reservations",
+            tags = { "users", "delete" }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @DeleteMapping("/{user-id}")
+    public ResponseEntity<?> deleteUser(@PathVariable("user-id") Long userId) {
+        return userService.deleteUser(userId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+            summary = "Delete a Reservation of User",
+            tags = { "reservations", "delete" }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "404", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", content = {@Content(schema = @Schema())})
+    })
+    @DeleteMapping("/{user-id}/reservations/{reservation-id}")
+    public ResponseEntity<?> deleteUserReservation(@PathVariable("user-id") Long userId,
+                                                   @PathVariable("reservation-id") Long reservationId) {
+        return reservationService.deleteReservation(userId, reservationId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 }
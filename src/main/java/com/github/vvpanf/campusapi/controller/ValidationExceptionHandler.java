@@ -1,5 +1,6 @@
 package com.github.vvpanf.campusapi.controller;
 
+import com.github.vvpanf.campusapi.ValidationException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,4 +27,9 @@ public class ValidationExceptionHandler {
 
         return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<?> handleException(ValidationException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
 }
@@ -0,0 +1,25 @@
+package com.github.vvpanf.campusapi.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Room that became busy, or free again when {@code available}, on the date between the start and end time.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AvailabilityDeltaDto {
+    Long roomId;
+    LocalDate dateOfReserv;
+    LocalTime startTime;
+    LocalTime endTime;
+    boolean available;
+}
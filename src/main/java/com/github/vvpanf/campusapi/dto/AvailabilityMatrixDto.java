@@ -0,0 +1,27 @@
+package com.github.vvpanf.campusapi.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Free rooms by date. {@code free[i]} belongs to {@code roomIds[i]} and has one character per date
+ * from {@code dateFrom} to {@code dateTo}: {@code '1'} when the room is free in the time window on
+ * that date, {@code '0'} when it is booked.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AvailabilityMatrixDto {
+    LocalDate dateFrom;
+    LocalDate dateTo;
+    List<Long> roomIds;
+    List<String> free;
+    List<Long> missing;
+}
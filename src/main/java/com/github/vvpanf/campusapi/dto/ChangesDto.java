@@ -0,0 +1,28 @@
+package com.github.vvpanf.campusapi.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows changed after the {@code since} token: current state of inserted or updated campuses, rooms
+ * grouped by campus id and reservations grouped by user id, plus deleted ids. {@code next} is the
+ * token for the following request; {@code hasMore} asks to call again right away.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChangesDto {
+    Long next;
+    Boolean hasMore;
+    List<CampusDto> campuses;
+    Map<Long, List<RoomDto>> rooms;
+    Map<Long, List<ReservationDto>> reservations;
+    List<DeletedEntityDto> deleted;
+}
@@ -0,0 +1,23 @@
+package com.github.vvpanf.campusapi.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import: rows written, rows rejected, and errors of the first rejected rows
+ * ({@code campus.import.max-errors}) by line number.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportResultDto {
+    Long imported;
+    Long failed;
+    List<ImportErrorDto> errors;
+}
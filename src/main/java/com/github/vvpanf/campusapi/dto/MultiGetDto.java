@@ -0,0 +1,22 @@
+package com.github.vvpanf.campusapi.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Result of a lookup by a list of ids: found items in the order of the requested ids, and the ids
+ * that were not found, also in request order.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MultiGetDto<T> {
+    List<T> content;
+    List<Long> missing;
+}
@@ -0,0 +1,26 @@
+package com.github.vvpanf.campusapi.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ReservationWithRoomsDto {
+    Long id;
+    LocalDate dateOfReserv;
+    LocalTime startTime;
+    LocalTime endTime;
+    String comment;
+    Integer peopleCount;
+    List<ReservationRoomDto> rooms = new ArrayList<>();
+}
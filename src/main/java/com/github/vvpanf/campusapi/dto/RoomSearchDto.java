@@ -0,0 +1,19 @@
+package com.github.vvpanf.campusapi.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RoomSearchDto {
+    PageDto<RoomDto> rooms;
+    Map<String, Integer> typeCounts;
+    Map<String, Integer> capacityCounts;
+}
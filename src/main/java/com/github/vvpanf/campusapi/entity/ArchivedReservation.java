@@ -0,0 +1,51 @@
+package com.github.vvpanf.campusapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Past-dated {@link Reservation} moved out of the live tables by the archival job. Keeps the id of
+ * the reservation, but no foreign keys to users and rooms.
+ */
+@Entity
+@Table(name = "reservation_archive", indexes = {
+        @Index(name = "idx_reservation_archive_user", columnList = "user_id"),
+        @Index(name = "idx_reservation_archive_date", columnList = "date_of_reserv")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@EqualsAndHashCode(exclude = "roomIds")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedReservation {
+    @Id
+    Long id;
+    @Column(name = "date_of_reserv")
+    LocalDate dateOfReserv;
+    @Column(name = "start_time")
+    LocalTime startTime;
+    @Column(name = "end_time")
+    LocalTime endTime;
+    @Column(length = 1000)
+    String comment;
+    @Column(name = "people_count")
+    Integer peopleCount;
+    @Column(name = "user_id")
+    Long userId;
+    @Column(name = "archived_at")
+    Instant archivedAt;
+
+    @ElementCollection
+    @CollectionTable(name = "room_in_reservation_archive",
+                     joinColumns = @JoinColumn(name = "reservation_id"),
+                     indexes = @Index(name = "idx_room_in_reservation_archive_room", columnList = "room_id"))
+    @Column(name = "room_id")
+    Set<Long> roomIds = new HashSet<>();
+}
@@ -3,29 +3,55 @@ package com.github.vvpanf.campusapi.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import org.hibernate.annotations.OnDelete;
-import org.hibernate.annotations.OnDeleteAction;
 
+import java.time.Instant;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @NoArgsConstructor
-@AllArgsConstructor
 @Data
-@EqualsAndHashCode(exclude = {"rooms"})
 @FieldDefaults(level = AccessLevel.PRIVATE)
-public class Campus {
+public class Campus extends VersionedEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
     String name;
+    @Basic(fetch = FetchType.LAZY)
     String address;
     @Column(name = "parking_spaces")
     Integer parkingSpaces;
+    @Column(name = "rooms_version", insertable = false, updatable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    Long roomsVersion;
+    @Column(name = "rooms_changed_at", insertable = false, updatable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    Instant roomsChangedAt;
 
-    @OneToMany(cascade = CascadeType.ALL)
-    @JoinColumn(name = "campus_id")
-    @OnDelete(action = OnDeleteAction.CASCADE)
-    final Set<Room> rooms = new HashSet<>();
+    @OneToMany(mappedBy = "campus", cascade = CascadeType.ALL)
+    @Setter(AccessLevel.NONE)
+    Set<Room> rooms = new HashSet<>();
+
+    public Campus(Long id, String name, String address, Integer parkingSpaces) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.parkingSpaces = parkingSpaces;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Campus campus && id != null && id.equals(campus.getId());
+    }
+
+    /**
+     * Same rules as {@link Reservation#hashCode()}.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 }
@@ -0,0 +1,40 @@
+package com.github.vvpanf.campusapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * One insert, update or delete of a campus, room or reservation. The identity {@code seq} orders
+ * the log and is handed to clients as the sync token.
+ */
+@Entity
+@Table(name = "change_log", indexes = @Index(name = "idx_change_log_entity", columnList = "entity_type, entity_id"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChangeLogEntry {
+    public enum EntityType { CAMPUS, ROOM, RESERVATION }
+    public enum Operation { UPSERT, DELETE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long seq;
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "entity_type", length = 16)
+    EntityType entityType;
+    @Column(name = "entity_id")
+    Long entityId;
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    Operation operation;
+    @Column(name = "changed_at")
+    Instant changedAt;
+}
@@ -0,0 +1,30 @@
+package com.github.vvpanf.campusapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_expires_at", columnList = "expires_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key")
+    String key;
+    @Column(name = "request_hash")
+    String requestHash;
+    Integer status;
+    @Column(name = "content_type")
+    String contentType;
+    String location;
+    @Lob
+    @ToString.Exclude
+    byte[] body;
+    @Column(name = "expires_at")
+    Instant expiresAt;
+}
@@ -8,16 +8,16 @@ import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
 
 @Entity
+@Table(indexes = @Index(name = "idx_reservation_date", columnList = "date_of_reserv"))
 @NoArgsConstructor
-@AllArgsConstructor
 @Data
-@EqualsAndHashCode(exclude = {"user", "rooms"})
 @FieldDefaults(level = AccessLevel.PRIVATE)
-public class Reservation {
+public class Reservation extends VersionedEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
@@ -27,16 +27,51 @@ public class Reservation {
     LocalTime startTime;
     @Column(name = "end_time")
     LocalTime endTime;
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 1000)
     String comment;
+    @Column(name = "people_count")
+    Integer peopleCount;
 
     @ManyToOne
+    @OnDelete(action = OnDeleteAction.CASCADE)
     User user;
 
     @ManyToMany
     @JoinTable(name = "room_in_reservation",
                joinColumns = @JoinColumn(name = "reservation_id"),
-               inverseJoinColumns = @JoinColumn(name = "room_id"))
+               inverseJoinColumns = @JoinColumn(name = "room_id"),
+               indexes = @Index(name = "idx_room_in_reservation_room", columnList = "room_id"))
     @OnDelete(action = OnDeleteAction.CASCADE)
-    final List<Room> rooms = new ArrayList<>();
+    @OrderBy("number")
+    @Setter(AccessLevel.NONE)
+    Set<Room> rooms = new LinkedHashSet<>();
+
+    public Reservation(Long id, LocalDate dateOfReserv, LocalTime startTime, LocalTime endTime, String comment,
+                       Integer peopleCount, User user) {
+        this.id = id;
+        this.dateOfReserv = dateOfReserv;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.comment = comment;
+        this.peopleCount = peopleCount;
+        this.user = user;
+    }
+
+    /**
+     * Equal to a reservation with the same id; a reservation that is not persisted yet is equal only to itself.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Reservation reservation && id != null && id.equals(reservation.getId());
+    }
+
+    /**
+     * Hash of the id. Persist assigns the id of a new reservation and so changes its hash, so only persisted
+     * reservations may be put into hash sets; the services add entities to collections only after loading them.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 }
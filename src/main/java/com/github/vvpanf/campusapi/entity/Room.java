@@ -3,17 +3,18 @@ package com.github.vvpanf.campusapi.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @NoArgsConstructor
-@AllArgsConstructor
 @Data
-@EqualsAndHashCode(exclude = {"campus", "reservations"})
 @FieldDefaults(level = AccessLevel.PRIVATE)
-public class Room {
+public class Room extends VersionedEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
@@ -22,8 +23,31 @@ public class Room {
     Integer capacity;
 
     @ManyToOne
+    @OnDelete(action = OnDeleteAction.CASCADE)
     Campus campus;
 
     @ManyToMany(mappedBy = "rooms")
-    final Set<Reservation> reservations = new HashSet<>();
+    @Setter(AccessLevel.NONE)
+    Set<Reservation> reservations = new HashSet<>();
+
+    public Room(Long id, String number, String type, Integer capacity, Campus campus) {
+        this.id = id;
+        this.number = number;
+        this.type = type;
+        this.capacity = capacity;
+        this.campus = campus;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Room room && id != null && id.equals(room.getId());
+    }
+
+    /**
+     * Same rules as {@link Reservation#hashCode()}.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 }
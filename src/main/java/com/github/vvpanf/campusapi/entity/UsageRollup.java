@@ -0,0 +1,57 @@
+package com.github.vvpanf.campusapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Booked minutes of a room or campus per day or week, kept up to date as rooms are added to reservations.
+ */
+@Entity
+@Table(name = "usage_rollup")
+@IdClass(UsageRollup.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UsageRollup {
+    public enum Scope { ROOM, CAMPUS }
+    public enum Period { DAY, WEEK }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "scope_type", length = 16)
+    Scope scope;
+    @Id
+    @Column(name = "scope_id")
+    Long scopeId;
+    @Id
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "period_type", length = 16)
+    Period period;
+    @Id
+    @Column(name = "period_start")
+    LocalDate periodStart;
+    @Column(name = "booked_minutes")
+    Long bookedMinutes;
+    @Column(name = "reservation_count")
+    Long reservationCount;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Key implements Serializable {
+        Scope scope;
+        Long scopeId;
+        Period period;
+        LocalDate periodStart;
+    }
+}
@@ -3,19 +3,16 @@ package com.github.vvpanf.campusapi.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import org.hibernate.annotations.OnDelete;
-import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
 @Table(name = "usr")
 @NoArgsConstructor
-@AllArgsConstructor
 @Data
-@EqualsAndHashCode(exclude = {"reservations"})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class User {
     @Id
@@ -27,8 +24,27 @@ public class User {
     LocalDate dateOfBirth;
     String email;
 
-    @OneToMany
-    @JoinColumn(name = "user_id")
-    @OnDelete(action = OnDeleteAction.CASCADE)
-    final List<Reservation> reservations = new ArrayList<>();
+    @OneToMany(mappedBy = "user")
+    @Setter(AccessLevel.NONE)
+    List<Reservation> reservations = new ArrayList<>();
+
+    public User(Long id, String fullName, LocalDate dateOfBirth, String email) {
+        this.id = id;
+        this.fullName = fullName;
+        this.dateOfBirth = dateOfBirth;
+        this.email = email;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof User user && id != null && id.equals(user.getId());
+    }
+
+    /**
+     * Same rules as {@link Reservation#hashCode()}.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 }
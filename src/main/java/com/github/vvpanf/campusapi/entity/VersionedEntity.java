@@ -0,0 +1,32 @@
+package com.github.vvpanf.campusapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Version and modification time of a row, used for ETag/Last-Modified of the exposed resources.
+ * Column defaults keep rows inserted by plain SQL (seed data, native inserts) valid for optimistic locking.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public abstract class VersionedEntity {
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    Long version;
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at", nullable = false)
+    Instant updatedAt;
+}
@@ -0,0 +1,3 @@
+package com.github.vvpanf.campusapi.event;
+
+public record CampusChangedEvent(Long campusId) {}
@@ -0,0 +1,6 @@
+package com.github.vvpanf.campusapi.event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record ReservationRoomAddedEvent(Long campusId, Long roomId, LocalDate dateOfReserv, LocalTime startTime, LocalTime endTime) {}
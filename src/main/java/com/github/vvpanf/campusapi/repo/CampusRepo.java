@@ -1,10 +1,39 @@
 package com.github.vvpanf.campusapi.repo;
 
+import com.github.vvpanf.campusapi.dto.CampusDto;
 import com.github.vvpanf.campusapi.entity.Campus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CampusRepo extends JpaRepository<Campus, Long> {
     Optional<Campus> findByName(String name);
+
+    @Query(value = "select new com.github.vvpanf.campusapi.dto.CampusDto(c.id, c.name, c.address, c.parkingSpaces) from Campus c",
+           countQuery = "select count(c) from Campus c")
+    Page<CampusDto> findAllDtos(Pageable pageable);
+
+    @Query("select new com.github.vvpanf.campusapi.dto.CampusDto(c.id, c.name, c.address, c.parkingSpaces) from Campus c where c.id in :ids")
+    List<CampusDto> findDtosByIdIn(Collection<Long> ids);
+
+    @Query("select c.version as version, c.updatedAt as updatedAt from Campus c where c.id = :id")
+    Optional<VersionStamp> findVersionById(Long id);
+
+    @Query("select c.roomsVersion as version, c.roomsChangedAt as updatedAt from Campus c where c.id = :id")
+    Optional<VersionStamp> findRoomsVersionById(Long id);
+
+    @Modifying
+    @Query(value = "update campus set rooms_version = rooms_version + 1, rooms_changed_at = :changedAt where id = :id", nativeQuery = true)
+    int incrementRoomsVersion(Long id, Instant changedAt);
+
+    @Modifying
+    @Query("delete from Campus c where c.id = :id")
+    int deleteInBulkById(Long id);
 }
@@ -0,0 +1,42 @@
+package com.github.vvpanf.campusapi.repo;
+
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ChangeLogRepo extends JpaRepository<ChangeLogEntry, Long> {
+    List<ChangeLogEntry> findAllBySeqGreaterThanOrderBySeq(Long seq, Pageable pageable);
+
+    @Query("select max(c.seq) from ChangeLogEntry c")
+    Optional<Long> findLastSeq();
+
+    @Modifying
+    @Query(value = "insert into change_log (entity_type, entity_id, operation, changed_at) " +
+                   "select 'ROOM', id, 'DELETE', current_timestamp from room where campus_id = :campusId",
+           nativeQuery = true)
+    int insertRoomDeletesByCampusId(Long campusId);
+
+    @Modifying
+    @Query(value = "insert into change_log (entity_type, entity_id, operation, changed_at) " +
+                   "select 'RESERVATION', id, 'DELETE', current_timestamp from reservation where user_id = :userId",
+           nativeQuery = true)
+    int insertReservationDeletesByUserId(Long userId);
+
+    @Modifying
+    @Query(value = "insert into change_log (entity_type, entity_id, operation, changed_at) " +
+                   "select 'ROOM', id, 'UPSERT', current_timestamp from room where id in (:ids)",
+           nativeQuery = true)
+    int insertRoomUpserts(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "insert into change_log (entity_type, entity_id, operation, changed_at) " +
+                   "select 'RESERVATION', id, 'UPSERT', current_timestamp from reservation where id in (:ids)",
+           nativeQuery = true)
+    int insertReservationUpserts(Collection<Long> ids);
+}
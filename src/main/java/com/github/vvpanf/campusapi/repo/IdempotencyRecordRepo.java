@@ -0,0 +1,28 @@
+package com.github.vvpanf.campusapi.repo;
+
+import com.github.vvpanf.campusapi.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepo extends JpaRepository<IdempotencyRecord, String> {
+    Optional<IdempotencyRecord> findByKeyAndExpiresAtAfter(String key, Instant now);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteAllExpired(Instant now);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.expiresAt < :now")
+    int deleteExpired(String key, Instant now);
+
+    /**
+     * Fails with a primary key violation when the key is already claimed, also by a request on another node.
+     */
+    @Modifying
+    @Query(value = "insert into idempotency_key (idempotency_key, request_hash, expires_at) values (:key, :requestHash, :expiresAt)", nativeQuery = true)
+    void insertPending(String key, String requestHash, Instant expiresAt);
+}
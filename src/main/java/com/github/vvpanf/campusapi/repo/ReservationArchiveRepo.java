@@ -0,0 +1,66 @@
+package com.github.vvpanf.campusapi.repo;
+
+import com.github.vvpanf.campusapi.entity.ArchivedReservation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReservationArchiveRepo extends JpaRepository<ArchivedReservation, Long> {
+    String HISTORY_COLUMNS = "id as \"id\", date_of_reserv as \"dateOfReserv\", start_time as \"startTime\", " +
+                             "end_time as \"endTime\", comment as \"comment\", people_count as \"peopleCount\"";
+
+    @Modifying
+    @Query(value = "insert into reservation_archive (id, date_of_reserv, start_time, end_time, comment, people_count, user_id, archived_at) " +
+                   "select id, date_of_reserv, start_time, end_time, comment, people_count, user_id, current_timestamp " +
+                   "from reservation where id in (:ids)",
+           nativeQuery = true)
+    int copyReservations(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "insert into room_in_reservation_archive (reservation_id, room_id) " +
+                   "select reservation_id, room_id from room_in_reservation where reservation_id in (:ids)",
+           nativeQuery = true)
+    int copyReservationRooms(Collection<Long> ids);
+
+    @Query(value = "select " + HISTORY_COLUMNS + " from reservation where user_id = :userId " +
+                   "union all " +
+                   "select " + HISTORY_COLUMNS + " from reservation_archive where user_id = :userId " +
+                   "order by \"dateOfReserv\", \"startTime\", \"id\"",
+           countQuery = "select (select count(*) from reservation where user_id = :userId) " +
+                        "+ (select count(*) from reservation_archive where user_id = :userId)",
+           nativeQuery = true)
+    Page<ReservationHistoryView> findHistoryByUserId(Long userId, Pageable pageable);
+
+    @Query(value = "select " + HISTORY_COLUMNS + " from reservation r " +
+                   "join room_in_reservation rr on rr.reservation_id = r.id where rr.room_id = :roomId " +
+                   "union all " +
+                   "select " + HISTORY_COLUMNS + " from reservation_archive a " +
+                   "join room_in_reservation_archive ra on ra.reservation_id = a.id where ra.room_id = :roomId " +
+                   "order by \"dateOfReserv\", \"startTime\", \"id\"",
+           countQuery = "select (select count(*) from room_in_reservation where room_id = :roomId) " +
+                        "+ (select count(*) from room_in_reservation_archive where room_id = :roomId)",
+           nativeQuery = true)
+    Page<ReservationHistoryView> findHistoryByRoomId(Long roomId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "delete from room_in_reservation_archive where reservation_id in (select id from reservation_archive where user_id = :userId)",
+           nativeQuery = true)
+    int deleteRoomLinksByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from ArchivedReservation a where a.userId = :userId")
+    int deleteInBulkByUserId(Long userId);
+
+    @Query("select min(a.dateOfReserv) from ArchivedReservation a")
+    Optional<LocalDate> findFirstDateOfReserv();
+
+    @Query("select max(a.dateOfReserv) from ArchivedReservation a")
+    Optional<LocalDate> findLastDateOfReserv();
+}
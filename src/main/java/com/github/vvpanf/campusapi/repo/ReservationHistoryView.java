@@ -0,0 +1,17 @@
+package com.github.vvpanf.campusapi.repo;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Row of a live or archived reservation. Native queries alias the columns in quotes, so the names
+ * keep their case on every database.
+ */
+public interface ReservationHistoryView {
+    Long getId();
+    LocalDate getDateOfReserv();
+    LocalTime getStartTime();
+    LocalTime getEndTime();
+    String getComment();
+    Integer getPeopleCount();
+}
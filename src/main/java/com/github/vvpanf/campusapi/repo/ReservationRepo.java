@@ -4,10 +4,93 @@ import com.github.vvpanf.campusapi.entity.Reservation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ReservationRepo extends JpaRepository<Reservation, Long> {
-    Page<Reservation> findAllByUserId(Long userId, Pageable pageable);
+    String ROW = "new com.github.vvpanf.campusapi.repo.ReservationRow(r.id, r.user.id, r.dateOfReserv, r.startTime, r.endTime, r.comment, r.peopleCount)";
+
     Optional<Reservation> findByIdAndUserId(Long id, Long userId);
+
+    /*
+     * Lists are read as rows: mapping entities would load the lazy comment of each of them with its own select.
+     */
+    @Query(value = "select " + ROW + " from Reservation r where r.user.id = :userId",
+           countQuery = "select count(r) from Reservation r where r.user.id = :userId")
+    Page<ReservationRow> findRowsByUserId(Long userId, Pageable pageable);
+
+    @Query("select " + ROW + " from Reservation r where r.user.id = :userId and r.id in :ids")
+    List<ReservationRow> findRowsByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    @Query("select " + ROW + " from Reservation r where r.id in :ids")
+    List<ReservationRow> findRowsByIdIn(Collection<Long> ids);
+
+    @Query("select distinct r.id from Reservation res join res.rooms r " +
+           "where r.campus.id = :campusId and res.dateOfReserv = :date and res.startTime < :endTime and res.endTime > :startTime")
+    Set<Long> findBusyRoomIds(Long campusId, LocalDate date, LocalTime startTime, LocalTime endTime);
+
+    @Query("select distinct new com.github.vvpanf.campusapi.repo.RoomDateRow(r.id, res.dateOfReserv) from Reservation res join res.rooms r " +
+           "where r.campus.id = :campusId and res.dateOfReserv between :dateFrom and :dateTo " +
+           "and res.startTime < :endTime and res.endTime > :startTime")
+    List<RoomDateRow> findBusyRoomDates(Long campusId, LocalDate dateFrom, LocalDate dateTo, LocalTime startTime, LocalTime endTime);
+
+    @Query("select r.id from Reservation r where r.dateOfReserv < :date order by r.id")
+    List<Long> findIdsByDateOfReservBefore(LocalDate date, Pageable pageable);
+
+    @Modifying
+    @Query(value = "delete from room_in_reservation where reservation_id in (:ids)", nativeQuery = true)
+    int deleteRoomLinksByReservationIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Reservation r where r.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    @Modifying
+    @Query("delete from Reservation r where r.id = :id and r.user.id = :userId")
+    int deleteInBulkByIdAndUserId(Long id, Long userId);
+
+    @Modifying
+    @Query(value = "delete from room_in_reservation where room_id = :roomId", nativeQuery = true)
+    int deleteRoomLinksByRoomId(Long roomId);
+
+    @Modifying
+    @Query(value = "delete from room_in_reservation where room_id in (select id from room where campus_id = :campusId)", nativeQuery = true)
+    int deleteRoomLinksByCampusId(Long campusId);
+
+    @Modifying
+    @Query(value = "delete from room_in_reservation where reservation_id in (select id from reservation where user_id = :userId)", nativeQuery = true)
+    int deleteRoomLinksByUserId(Long userId);
+
+    @Query(value = "select rr.reservation_id as \"reservationId\", r.id as \"roomId\", r.number as \"number\", r.type as \"type\", " +
+                   "c.id as \"campusId\", c.name as \"campusName\" " +
+                   "from (select reservation_id, room_id from room_in_reservation where reservation_id in (:ids) " +
+                   "union all " +
+                   "select reservation_id, room_id from room_in_reservation_archive where reservation_id in (:ids)) rr " +
+                   "join room r on r.id = rr.room_id join campus c on c.id = r.campus_id " +
+                   "order by rr.reservation_id, r.number",
+           nativeQuery = true)
+    List<ReservationRoomView> findRoomsByReservationIdIn(Collection<Long> ids);
+
+    @Query("select min(res.dateOfReserv) from Reservation res")
+    Optional<LocalDate> findFirstDateOfReserv();
+
+    @Query("select max(res.dateOfReserv) from Reservation res")
+    Optional<LocalDate> findLastDateOfReserv();
+
+    @Query("select new com.github.vvpanf.campusapi.repo.RoomUsageRow(r.id, r.campus.id, res.dateOfReserv, res.startTime, res.endTime) " +
+           "from Reservation res join res.rooms r where res.user.id = :userId")
+    List<RoomUsageRow> findRoomUsageRowsByUserId(Long userId);
+
+    @Query("select new com.github.vvpanf.campusapi.repo.RoomUsageRow(r.id, r.campus.id, res.dateOfReserv, res.startTime, res.endTime) " +
+           "from Reservation res join res.rooms r where res.id = :id")
+    List<RoomUsageRow> findRoomUsageRowsById(Long id);
 }
@@ -0,0 +1,14 @@
+package com.github.vvpanf.campusapi.repo;
+
+/**
+ * Room linked to a live or archived reservation. Native queries alias the columns in quotes, so the
+ * names keep their case on every database.
+ */
+public interface ReservationRoomView {
+    Long getReservationId();
+    Long getRoomId();
+    String getNumber();
+    String getType();
+    Long getCampusId();
+    String getCampusName();
+}
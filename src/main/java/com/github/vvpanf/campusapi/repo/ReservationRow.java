@@ -0,0 +1,7 @@
+package com.github.vvpanf.campusapi.repo;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record ReservationRow(Long id, Long userId, LocalDate dateOfReserv, LocalTime startTime, LocalTime endTime,
+                             String comment, Integer peopleCount) {}
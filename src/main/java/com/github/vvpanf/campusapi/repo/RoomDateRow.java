@@ -0,0 +1,5 @@
+package com.github.vvpanf.campusapi.repo;
+
+import java.time.LocalDate;
+
+public record RoomDateRow(Long roomId, LocalDate dateOfReserv) {}
@@ -4,7 +4,10 @@ import com.github.vvpanf.campusapi.entity.Room;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +15,19 @@ public interface RoomRepo extends JpaRepository<Room, Long> {
     List<Room> findAllByCampusId(Long campusId);
     Page<Room> findAllByCampusId(Long campusId, Pageable pageable);
     Optional<Room> findByIdAndCampusId(Long id, Long campusId);
+    boolean existsByIdAndCampusId(Long id, Long campusId);
+
+    @Query("select r.version as version, r.updatedAt as updatedAt from Room r where r.id = :id and r.campus.id = :campusId")
+    Optional<VersionStamp> findVersionByIdAndCampusId(Long id, Long campusId);
+
+    @Query("select new com.github.vvpanf.campusapi.repo.TimetableRow(r.id, r.number, r.type, r.capacity, " +
+           "res.id, res.dateOfReserv, res.startTime, res.endTime, res.comment, res.peopleCount) " +
+           "from Room r left join r.reservations res on res.dateOfReserv between :dateFrom and :dateTo " +
+           "where r.campus.id = :campusId " +
+           "order by r.id, res.dateOfReserv, res.startTime")
+    List<TimetableRow> findTimetableRows(Long campusId, LocalDate dateFrom, LocalDate dateTo);
+
+    @Modifying
+    @Query("delete from Room r where r.id = :id and r.campus.id = :campusId")
+    int deleteInBulkByIdAndCampusId(Long id, Long campusId);
 }
@@ -0,0 +1,6 @@
+package com.github.vvpanf.campusapi.repo;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record RoomUsageRow(Long roomId, Long campusId, LocalDate dateOfReserv, LocalTime startTime, LocalTime endTime) {}
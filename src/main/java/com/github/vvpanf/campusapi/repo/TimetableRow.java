@@ -0,0 +1,7 @@
+package com.github.vvpanf.campusapi.repo;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record TimetableRow(Long roomId, String number, String type, Integer capacity,
+                           Long reservationId, LocalDate dateOfReserv, LocalTime startTime, LocalTime endTime, String comment, Integer peopleCount) {}
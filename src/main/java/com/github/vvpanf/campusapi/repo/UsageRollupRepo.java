@@ -0,0 +1,94 @@
+package com.github.vvpanf.campusapi.repo;
+
+import com.github.vvpanf.campusapi.entity.UsageRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface UsageRollupRepo extends JpaRepository<UsageRollup, UsageRollup.Key> {
+    String ROOM_OF_CAMPUS_ROW = "where r.scope_type = 'ROOM' and r.scope_id = :roomId " +
+                                "and r.period_type = c.period_type and r.period_start = c.period_start";
+    String ROOM_USAGE_IN_RANGE = "select r.date_of_reserv, r.start_time, r.end_time, rr.room_id, ro.campus_id from reservation r " +
+                                 "join room_in_reservation rr on rr.reservation_id = r.id join room ro on ro.id = rr.room_id " +
+                                 "where r.date_of_reserv >= :from and r.date_of_reserv < :to " +
+                                 "union all " +
+                                 "select a.date_of_reserv, a.start_time, a.end_time, ra.room_id, ro.campus_id from reservation_archive a " +
+                                 "join room_in_reservation_archive ra on ra.reservation_id = a.id join room ro on ro.id = ra.room_id " +
+                                 "where a.date_of_reserv >= :from and a.date_of_reserv < :to";
+    String ROLLUPS_OF_USAGE = "select k.scope_type, case k.scope_type when 'ROOM' then x.room_id else x.campus_id end scope_id, " +
+                              "k.period_type, case k.period_type when 'DAY' then x.date_of_reserv " +
+                              "else dateadd(day, 1 - iso_day_of_week(x.date_of_reserv), x.date_of_reserv) end period_start, " +
+                              "datediff(minute, x.start_time, x.end_time) minutes, 1 reservations " +
+                              "from (" + ROOM_USAGE_IN_RANGE + ") x " +
+                              "cross join (values ('ROOM', 'DAY'), ('ROOM', 'WEEK'), ('CAMPUS', 'DAY'), ('CAMPUS', 'WEEK')) k(scope_type, period_type)";
+
+    List<UsageRollup> findAllByScopeAndScopeIdAndPeriodAndPeriodStartBetweenOrderByPeriodStart(
+            UsageRollup.Scope scope, Long scopeId, UsageRollup.Period period, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = "merge into usage_rollup u " +
+                   "using (select cast(:scope as varchar(16)) scope_type, cast(:scopeId as bigint) scope_id, " +
+                   "cast(:period as varchar(16)) period_type, cast(:periodStart as date) period_start, " +
+                   "cast(:minutes as bigint) minutes, cast(:reservations as bigint) reservations) s " +
+                   "on u.scope_type = s.scope_type and u.scope_id = s.scope_id " +
+                   "and u.period_type = s.period_type and u.period_start = s.period_start " +
+                   "when matched then update set booked_minutes = u.booked_minutes + s.minutes, " +
+                   "reservation_count = u.reservation_count + s.reservations " +
+                   "when not matched then insert (scope_type, scope_id, period_type, period_start, booked_minutes, reservation_count) " +
+                   "values (s.scope_type, s.scope_id, s.period_type, s.period_start, s.minutes, s.reservations)",
+           nativeQuery = true)
+    void addUsage(String scope, Long scopeId, String period, LocalDate periodStart, long minutes, long reservations);
+
+    @Modifying
+    @Query(value = "update usage_rollup c set " +
+                   "booked_minutes = c.booked_minutes - (select r.booked_minutes from usage_rollup r " + ROOM_OF_CAMPUS_ROW + "), " +
+                   "reservation_count = c.reservation_count - (select r.reservation_count from usage_rollup r " + ROOM_OF_CAMPUS_ROW + ") " +
+                   "where c.scope_type = 'CAMPUS' and c.scope_id = :campusId " +
+                   "and exists (select 1 from usage_rollup r " + ROOM_OF_CAMPUS_ROW + ")",
+           nativeQuery = true)
+    int subtractRoomFromCampus(Long campusId, Long roomId);
+
+    @Modifying
+    @Query(value = "delete from usage_rollup where scope_type = 'ROOM' and scope_id = :roomId", nativeQuery = true)
+    int deleteAllByRoomId(Long roomId);
+
+    @Modifying
+    @Query(value = "delete from usage_rollup where (scope_type = 'CAMPUS' and scope_id = :campusId) " +
+                   "or (scope_type = 'ROOM' and scope_id in (select id from room where campus_id = :campusId))",
+           nativeQuery = true)
+    int deleteAllByCampusId(Long campusId);
+
+    /**
+     * Brings the rollups with a period start in {@code [from, to)} to the totals of the live and archived
+     * reservations of those dates by adding the difference to the stored totals. The difference is taken
+     * from reservations and rollups in one statement, so both come from the same snapshot: a concurrent
+     * transaction's booking is in neither, and the addition lands on the row as that transaction leaves it,
+     * keeping its increment. Running it again changes nothing.
+     */
+    @Modifying
+    @Query(value = "merge into usage_rollup u " +
+                   "using (select scope_type, scope_id, period_type, period_start, sum(minutes) minutes, sum(reservations) reservations " +
+                   "from (" + ROLLUPS_OF_USAGE + " union all " +
+                   "select scope_type, scope_id, period_type, period_start, -booked_minutes, -reservation_count from usage_rollup " +
+                   "where period_start >= :from and period_start < :to) d " +
+                   "group by scope_type, scope_id, period_type, period_start " +
+                   "having sum(minutes) <> 0 or sum(reservations) <> 0) s " +
+                   "on u.scope_type = s.scope_type and u.scope_id = s.scope_id " +
+                   "and u.period_type = s.period_type and u.period_start = s.period_start " +
+                   "when matched then update set booked_minutes = u.booked_minutes + s.minutes, " +
+                   "reservation_count = u.reservation_count + s.reservations " +
+                   "when not matched then insert (scope_type, scope_id, period_type, period_start, booked_minutes, reservation_count) " +
+                   "values (s.scope_type, s.scope_id, s.period_type, s.period_start, s.minutes, s.reservations)",
+           nativeQuery = true)
+    int reconcileRange(LocalDate from, LocalDate to);
+
+    @Query("select min(u.periodStart) from UsageRollup u")
+    Optional<LocalDate> findFirstPeriodStart();
+
+    @Query("select max(u.periodStart) from UsageRollup u")
+    Optional<LocalDate> findLastPeriodStart();
+}
@@ -4,8 +4,14 @@ import com.github.vvpanf.campusapi.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface UserRepo extends JpaRepository<User, Long> {
     Page<User> findByFullNameContains(String fullName, Pageable pageable);
+
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteInBulkById(Long id);
 }
 
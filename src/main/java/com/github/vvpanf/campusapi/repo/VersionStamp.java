@@ -0,0 +1,8 @@
+package com.github.vvpanf.campusapi.repo;
+
+import java.time.Instant;
+
+public interface VersionStamp {
+    Long getVersion();
+    Instant getUpdatedAt();
+}
@@ -0,0 +1,119 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.vvpanf.campusapi.dto.AvailabilityDeltaDto;
+import com.github.vvpanf.campusapi.event.ReservationRoomAddedEvent;
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Pushes rooms that became busy or free to the SSE subscribers of a campus. Changes committed within one
+ * coalescing window are collected per campus and serialized once, then the same payload is written
+ * to every subscriber of the campus; of two changes of the same slot only the later one is sent.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AvailabilityFeedService {
+    private static final long SUBSCRIPTION_TIMEOUT = Duration.ofMinutes(30).toMillis();
+    ObjectMapper objectMapper;
+    Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    Map<Long, Set<AvailabilityDeltaDto>> pending = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(Long campusId) {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT);
+        register(campusId, emitter);
+        return emitter;
+    }
+
+    void register(Long campusId, SseEmitter emitter) {
+        subscribers.compute(campusId, (id, emitters) -> {
+            Set<SseEmitter> result = emitters == null ? new CopyOnWriteArraySet<>() : emitters;
+            result.add(emitter);
+            return result;
+        });
+        emitter.onCompletion(() -> unregister(campusId, emitter));
+        emitter.onTimeout(() -> unregister(campusId, emitter));
+        emitter.onError(e -> unregister(campusId, emitter));
+    }
+
+    /**
+     * Drops the campus entry together with its last subscriber, so campuses nobody watches any more do not stay in the map.
+     */
+    void unregister(Long campusId, SseEmitter emitter) {
+        subscribers.computeIfPresent(campusId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    Set<Long> getSubscribedCampusIds() {
+        return subscribers.keySet();
+    }
+
+    @TransactionalEventListener
+    public void onReservationRoomAdded(ReservationRoomAddedEvent event) {
+        addPending(event.campusId(), new AvailabilityDeltaDto(event.roomId(), event.dateOfReserv(), event.startTime(), event.endTime(), false));
+    }
+
+    @TransactionalEventListener
+    public void onReservationRoomRemoved(ReservationRoomRemovedEvent event) {
+        addPending(event.campusId(), new AvailabilityDeltaDto(event.roomId(), event.dateOfReserv(), event.startTime(), event.endTime(), true));
+    }
+
+    @Scheduled(fixedDelayString = "${campus.availability.coalesce-window-ms:500}")
+    public void publishPending() {
+        for (Long campusId : pending.keySet()) {
+            Set<AvailabilityDeltaDto> deltas = pending.remove(campusId);
+            Set<SseEmitter> emitters = subscribers.get(campusId);
+            if (deltas == null || emitters == null || emitters.isEmpty()) continue;
+            String data = toJson(deltas);
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name("availability").data(data, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    unregister(campusId, emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private void addPending(Long campusId, AvailabilityDeltaDto delta) {
+        Set<SseEmitter> emitters = subscribers.get(campusId);
+        if (emitters == null || emitters.isEmpty()) return;
+        AvailabilityDeltaDto opposite = new AvailabilityDeltaDto(delta.getRoomId(), delta.getDateOfReserv(),
+                delta.getStartTime(), delta.getEndTime(), !delta.isAvailable());
+        pending.compute(campusId, (id, deltas) -> {
+            Set<AvailabilityDeltaDto> result = deltas == null ? new LinkedHashSet<>() : deltas;
+            result.remove(opposite);
+            result.add(delta);
+            return result;
+        });
+    }
+
+    private String toJson(Set<AvailabilityDeltaDto> deltas) {
+        try {
+            return objectMapper.writeValueAsString(deltas);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
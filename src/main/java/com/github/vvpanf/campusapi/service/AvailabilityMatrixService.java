@@ -0,0 +1,79 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.AvailabilityMatrixDto;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.RoomDateRow;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AvailabilityMatrixService {
+    private static final int MATRIX_MAX_DAYS = 92;
+    RoomIndexService roomIndexService;
+    ReservationRepo reservationRepo;
+
+    /**
+     * Which rooms are free in the time window on each date of the range. Rooms come from the campus
+     * room index; all bookings overlapping the window in the range are read with one query and set into
+     * a single bitset of rooms × days, so the cost does not grow with one lookup per date.
+     *
+     * @param roomIds rooms to include in this order, or {@code null} for all rooms of the campus in id order
+     * @return {@code null} when there is no such campus
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityMatrixDto getMatrix(Long campusId, List<Long> roomIds, LocalDate dateFrom, LocalDate dateTo,
+                                           LocalTime startTime, LocalTime endTime) {
+        if (dateTo.isBefore(dateFrom)) throw new ValidationException("Дата окончания периода не может быть раньше даты начала");
+        if (ChronoUnit.DAYS.between(dateFrom, dateTo) >= MATRIX_MAX_DAYS) throw new ValidationException("Период не может превышать " + MATRIX_MAX_DAYS + " дней");
+        if (!startTime.isBefore(endTime)) throw new ValidationException("Время начала резервирования должно предшествовать времени окончания");
+        if (roomIds != null && roomIds.stream().anyMatch(Objects::isNull)) throw new ValidationException("Список id не может содержать пустые значения");
+        CampusRoomIndex index = roomIndexService.getIndex(campusId);
+        if (index == null) return null;
+        List<Long> rooms = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        if (roomIds == null) {
+            index.getRooms().forEach(room -> rooms.add(room.getId()));
+        } else {
+            roomIds.stream().distinct().forEach(id -> (index.findRoom(id) != null ? rooms : missing).add(id));
+        }
+        Map<Long, Integer> rowByRoomId = new HashMap<>();
+        for (int row = 0; row < rooms.size(); row++) {
+            rowByRoomId.put(rooms.get(row), row);
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(dateFrom, dateTo) + 1;
+        BitSet busy = new BitSet(rooms.size() * days);
+        List<RoomDateRow> busyDates = reservationRepo.findBusyRoomDates(campusId, dateFrom, dateTo, startTime, endTime);
+        ScannedRows.add(busyDates.size());
+        for (RoomDateRow busyDate : busyDates) {
+            Integer row = rowByRoomId.get(busyDate.roomId());
+            if (row != null) busy.set(row * days + (int) ChronoUnit.DAYS.between(dateFrom, busyDate.dateOfReserv()));
+        }
+
+        List<String> free = new ArrayList<>(rooms.size());
+        char[] line = new char[days];
+        for (int row = 0; row < rooms.size(); row++) {
+            for (int day = 0; day < days; day++) {
+                line[day] = busy.get(row * days + day) ? '0' : '1';
+            }
+            free.add(new String(line));
+        }
+        return new AvailabilityMatrixDto(dateFrom, dateTo, rooms, free, missing);
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.dto.RoomDto;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the rooms of one campus. Rooms are numbered by ordinal in id order and
+ * grouped by capacity, so "smallest room with at least N seats" is a ceiling lookup instead of a scan.
+ * Bitsets over the ordinals per room type and per capacity band let facet counts be computed
+ * with a few bitwise operations. Rooms without a type or capacity (inserted by plain SQL) are
+ * listed, but match no type or capacity filter and count in no facet.
+ */
+public class CampusRoomIndex {
+    public static final int[] CAPACITY_BANDS = {0, 20, 50, 100};
+
+    private final List<RoomDto> rooms;
+    private final NavigableMap<Integer, List<Integer>> ordinalsByCapacity;
+    private final Map<String, BitSet> ordinalsByType;
+    private final Map<String, BitSet> ordinalsByCapacityBand;
+
+    public CampusRoomIndex(List<RoomDto> rooms) {
+        List<RoomDto> sorted = new ArrayList<>(rooms);
+        sorted.sort(Comparator.comparing(RoomDto::getId));
+        TreeMap<Integer, List<Integer>> byCapacity = new TreeMap<>();
+        Map<String, BitSet> byType = new TreeMap<>();
+        Map<String, BitSet> byBand = new LinkedHashMap<>();
+        for (int band = 0; band < CAPACITY_BANDS.length; band++) {
+            byBand.put(bandLabel(band), new BitSet(sorted.size()));
+        }
+        for (int ordinal = 0; ordinal < sorted.size(); ordinal++) {
+            RoomDto room = sorted.get(ordinal);
+            if (room.getCapacity() != null) {
+                byCapacity.computeIfAbsent(room.getCapacity(), capacity -> new ArrayList<>()).add(ordinal);
+                byBand.get(bandLabel(band(room.getCapacity()))).set(ordinal);
+            }
+            if (room.getType() != null) {
+                byType.computeIfAbsent(room.getType(), type -> new BitSet(sorted.size())).set(ordinal);
+            }
+        }
+        this.rooms = Collections.unmodifiableList(sorted);
+        this.ordinalsByCapacity = Collections.unmodifiableNavigableMap(byCapacity);
+        this.ordinalsByType = Collections.unmodifiableMap(byType);
+        this.ordinalsByCapacityBand = Collections.unmodifiableMap(byBand);
+    }
+
+    public int size() {
+        return rooms.size();
+    }
+
+    public RoomDto getRoom(int ordinal) {
+        return rooms.get(ordinal);
+    }
+
+    public List<RoomDto> getRooms() {
+        return rooms;
+    }
+
+    /** Room by id, found by binary search over the id-ordered rooms; {@code null} when the campus has no such room. */
+    public RoomDto findRoom(Long id) {
+        int ordinal = Collections.binarySearch(rooms, new RoomDto(id, null, null, null), Comparator.comparing(RoomDto::getId));
+        return ordinal >= 0 ? rooms.get(ordinal) : null;
+    }
+
+    public NavigableMap<Integer, List<Integer>> getOrdinalsByCapacity() {
+        return ordinalsByCapacity;
+    }
+
+    /** Type -> rooms of that type. The bitsets are shared, callers must copy before modifying. */
+    public Map<String, BitSet> getOrdinalsByType() {
+        return ordinalsByType;
+    }
+
+    /** Capacity band label ("0-19", ..., "100+") -> rooms in that band. Shared like {@link #getOrdinalsByType()}. */
+    public Map<String, BitSet> getOrdinalsByCapacityBand() {
+        return ordinalsByCapacityBand;
+    }
+
+    public BitSet all() {
+        BitSet all = new BitSet(rooms.size());
+        all.set(0, rooms.size());
+        return all;
+    }
+
+    public BitSet capacityBetween(Integer min, Integer max) {
+        BitSet result = new BitSet(rooms.size());
+        NavigableMap<Integer, List<Integer>> range = ordinalsByCapacity;
+        if (min != null) range = range.tailMap(min, true);
+        if (max != null) range = range.headMap(max, true);
+        range.values().forEach(ordinals -> ordinals.forEach(result::set));
+        return result;
+    }
+
+    private static int band(int capacity) {
+        int band = 0;
+        while (band + 1 < CAPACITY_BANDS.length && capacity >= CAPACITY_BANDS[band + 1]) band++;
+        return band;
+    }
+
+    private static String bandLabel(int band) {
+        return band + 1 < CAPACITY_BANDS.length
+                ? CAPACITY_BANDS[band] + "-" + (CAPACITY_BANDS[band + 1] - 1)
+                : CAPACITY_BANDS[band] + "+";
+    }
+}
@@ -2,15 +2,22 @@ package com.github.vvpanf.campusapi.service;
 
 import com.github.vvpanf.campusapi.dto.CampusDto;
 import com.github.vvpanf.campusapi.entity.Campus;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry.EntityType;
+import com.github.vvpanf.campusapi.event.CampusChangedEvent;
 import com.github.vvpanf.campusapi.repo.CampusRepo;
-import jakarta.transaction.Transactional;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -18,22 +25,52 @@ import org.springframework.stereotype.Service;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class CampusService {
     CampusRepo campusRepo;
+    ReservationRepo reservationRepo;
+    UsageRollupService usageRollupService;
+    ChangeLogService changeLogService;
     ModelMapper modelMapper;
+    SparseFieldsQuery sparseFieldsQuery;
+    ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
     public Page<CampusDto> getAllCampuses(Pageable pageable) {
-        return campusRepo.findAll(pageable).map(campus -> modelMapper.map(campus, CampusDto.class));
+        return campusRepo.findAllDtos(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllCampuses(Pageable pageable, List<String> fields) {
+        return sparseFieldsQuery.findPage(Campus.class, CampusDto.class, fields, null, pageable);
     }
 
+    @Transactional(readOnly = true)
     public CampusDto getCampusById(Long id) {
         return campusRepo.findById(id).map(campus -> modelMapper.map(campus, CampusDto.class)).orElse(null);
     }
 
+    @Transactional(readOnly = true)
     public CampusDto getCampusByName(String name) {
         return campusRepo.findByName(name).map(campus -> modelMapper.map(campus, CampusDto.class)).orElse(null);
     }
 
     public CampusDto addCampus(CampusDto campusDto) {
         Campus newCampus = campusRepo.save(modelMapper.map(campusDto, Campus.class));
+        changeLogService.recordUpsert(EntityType.CAMPUS, newCampus.getId());
+        eventPublisher.publishEvent(new CampusChangedEvent(newCampus.getId()));
         return modelMapper.map(newCampus, CampusDto.class);
     }
+
+    /**
+     * Deletes the campus with one statement; its rooms go by {@code ON DELETE CASCADE}. Only the links
+     * of the rooms to reservations are deleted beforehand, the reservations themselves are kept.
+     */
+    public boolean deleteCampus(Long id) {
+        if (!campusRepo.existsById(id)) return false;
+        reservationRepo.deleteRoomLinksByCampusId(id);
+        usageRollupService.deleteCampusUsage(id);
+        changeLogService.recordCampusRoomsDeleted(id);
+        changeLogService.recordDelete(EntityType.CAMPUS, id);
+        campusRepo.deleteInBulkById(id);
+        eventPublisher.publishEvent(new CampusChangedEvent(id));
+        return true;
+    }
 }
@@ -0,0 +1,200 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.CampusDto;
+import com.github.vvpanf.campusapi.dto.ChangesDto;
+import com.github.vvpanf.campusapi.dto.DeletedEntityDto;
+import com.github.vvpanf.campusapi.dto.ReservationDto;
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry.EntityType;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry.Operation;
+import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.ChangeLogRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.RoomRepo;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends a {@code change_log} row in the transaction of every insert, update or delete of a campus,
+ * room or reservation, and serves the rows changed after a sync token. The token is the {@code seq}
+ * of the last log row the client has seen, so a sync reads the log by primary key and loads only
+ * the changed rows.
+ */
+@Service
+@Transactional
+public class ChangeLogService {
+    private static final int MAX_TRACKED_GAPS = 10_000;
+    private final ChangeLogRepo changeLogRepo;
+    private final CampusRepo campusRepo;
+    private final RoomRepo roomRepo;
+    private final ReservationRepo reservationRepo;
+    private final ModelMapper modelMapper;
+    private final Duration commitLag;
+    private final Clock clock;
+    private final AtomicLong writersStarted = new AtomicLong();
+    private final ConcurrentSkipListSet<Long> openWriters = new ConcurrentSkipListSet<>();
+    private final Map<Long, Long> gapWriters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ChangeLogService(ChangeLogRepo changeLogRepo, CampusRepo campusRepo, RoomRepo roomRepo,
+                            ReservationRepo reservationRepo, ModelMapper modelMapper,
+                            @Value("${campus.changes.commit-lag:5s}") Duration commitLag) {
+        this(changeLogRepo, campusRepo, roomRepo, reservationRepo, modelMapper, commitLag, Clock.systemUTC());
+    }
+
+    ChangeLogService(ChangeLogRepo changeLogRepo, CampusRepo campusRepo, RoomRepo roomRepo,
+                     ReservationRepo reservationRepo, ModelMapper modelMapper, Duration commitLag, Clock clock) {
+        this.changeLogRepo = changeLogRepo;
+        this.campusRepo = campusRepo;
+        this.roomRepo = roomRepo;
+        this.reservationRepo = reservationRepo;
+        this.modelMapper = modelMapper;
+        this.commitLag = commitLag;
+        this.clock = clock;
+    }
+
+    public void recordUpsert(EntityType entityType, Long entityId) {
+        registerWriter();
+        changeLogRepo.save(new ChangeLogEntry(null, entityType, entityId, Operation.UPSERT, Instant.now(clock)));
+    }
+
+    public void recordDelete(EntityType entityType, Long entityId) {
+        registerWriter();
+        changeLogRepo.save(new ChangeLogEntry(null, entityType, entityId, Operation.DELETE, Instant.now(clock)));
+    }
+
+    /**
+     * Records deletes of all rooms of the campus; must run before the campus is deleted.
+     */
+    public void recordCampusRoomsDeleted(Long campusId) {
+        registerWriter();
+        changeLogRepo.insertRoomDeletesByCampusId(campusId);
+    }
+
+    /**
+     * Records deletes of all live reservations of the user; must run before the user is deleted.
+     */
+    public void recordUserReservationsDeleted(Long userId) {
+        registerWriter();
+        changeLogRepo.insertReservationDeletesByUserId(userId);
+    }
+
+    /**
+     * Records inserts of rooms written past JPA, e.g. by the CSV import.
+     */
+    public void recordRoomsUpserted(List<Long> roomIds) {
+        registerWriter();
+        if (!roomIds.isEmpty()) changeLogRepo.insertRoomUpserts(roomIds);
+    }
+
+    /**
+     * Records inserts of reservations written past JPA, e.g. by the CSV import.
+     */
+    public void recordReservationsUpserted(List<Long> reservationIds) {
+        registerWriter();
+        if (!reservationIds.isEmpty()) changeLogRepo.insertReservationUpserts(reservationIds);
+    }
+
+    /**
+     * Reads the primary, like {@link #getChanges}: a token from a lagging replica would be behind the writes.
+     */
+    public Long getLatestToken() {
+        return changeLogRepo.findLastSeq().orElse(0L);
+    }
+
+    /**
+     * Returns the current state of rows changed after {@code since} and the ids of deleted ones, reading
+     * at most {@code limit} log rows. Sequence values are taken before commit, so a gap in the log may
+     * be a transaction that has not committed yet: reading stops in front of it and the client gets that
+     * row on its next sync. A gap is skipped as rolled back only when the row after it is older than
+     * {@code campus.changes.commit-lag} and every log writer that was running when the gap was first seen
+     * had finished before this read, however long it ran.
+     * <p>
+     * Not read-only on purpose: a read-only transaction goes to the replica under the replica profile, and
+     * the writers tracked here are those of the primary. A lagging replica would show a gap as settled, or no
+     * gap at all, and return a token past rows it has not received, which the client would then never get.
+     */
+    public ChangesDto getChanges(Long since, int limit) {
+        if (since < 0) throw new ValidationException("Токен синхронизации не может быть отрицательным");
+        long startedBefore = writersStarted.get();
+        long oldestOpenBefore = openWriters.isEmpty() ? Long.MAX_VALUE : openWriters.first();
+        List<ChangeLogEntry> entries = changeLogRepo.findAllBySeqGreaterThanOrderBySeq(since, PageRequest.of(0, limit + 1));
+        long startedAfter = writersStarted.get();
+        ScannedRows.add(entries.size());
+        boolean hasMore = entries.size() > limit;
+        Instant settled = Instant.now(clock).minus(commitLag);
+        Map<EntityType, Map<Long, Operation>> latest = new LinkedHashMap<>();
+        long next = since;
+        for (ChangeLogEntry entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            if (entry.getSeq() != next + 1) {
+                if (gapWriters.size() >= MAX_TRACKED_GAPS) gapWriters.clear();
+                long possibleWriters = gapWriters.computeIfAbsent(next + 1, seq -> startedAfter);
+                if (entry.getChangedAt().isAfter(settled) || startedBefore < possibleWriters || oldestOpenBefore <= possibleWriters) {
+                    hasMore = false;
+                    break;
+                }
+                gapWriters.remove(next + 1);
+            }
+            latest.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>())
+                    .put(entry.getEntityId(), entry.getOperation());
+            next = entry.getSeq();
+        }
+
+        List<DeletedEntityDto> deleted = new ArrayList<>();
+        Map<EntityType, List<Long>> upserted = new LinkedHashMap<>();
+        latest.forEach((type, operations) -> operations.forEach((id, operation) -> {
+            if (operation == Operation.DELETE) deleted.add(new DeletedEntityDto(type.name(), id));
+            else upserted.computeIfAbsent(type, t -> new ArrayList<>()).add(id);
+        }));
+
+        List<CampusDto> campuses = campusRepo.findDtosByIdIn(upserted.getOrDefault(EntityType.CAMPUS, List.of()));
+        Map<Long, List<RoomDto>> rooms = new TreeMap<>();
+        roomRepo.findAllById(upserted.getOrDefault(EntityType.ROOM, List.of())).forEach(room ->
+                rooms.computeIfAbsent(room.getCampus().getId(), id -> new ArrayList<>()).add(modelMapper.map(room, RoomDto.class)));
+        Map<Long, List<ReservationDto>> reservations = new TreeMap<>();
+        reservationRepo.findRowsByIdIn(upserted.getOrDefault(EntityType.RESERVATION, List.of())).forEach(row ->
+                reservations.computeIfAbsent(row.userId(), id -> new ArrayList<>()).add(new ReservationDto(row.id(), row.dateOfReserv(),
+                        row.startTime(), row.endTime(), row.comment(), row.peopleCount())));
+        return new ChangesDto(next, hasMore, campuses, rooms, reservations, deleted);
+    }
+
+    /**
+     * Numbers the transaction on its first log write and keeps it among the open writers until it completes.
+     * The number is taken before the log row gets its sequence value, so a gap left by a transaction that
+     * is still running belongs to a writer numbered no later than the count read after the gap was seen.
+     */
+    private void registerWriter() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(openWriters)) return;
+        long writer = writersStarted.incrementAndGet();
+        openWriters.add(writer);
+        TransactionSynchronizationManager.bindResource(openWriters, writer);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(openWriters);
+                openWriters.remove(writer);
+            }
+        });
+    }
+}
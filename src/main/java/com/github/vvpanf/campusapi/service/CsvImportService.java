@@ -0,0 +1,278 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.ImportErrorDto;
+import com.github.vvpanf.campusapi.dto.ImportResultDto;
+import com.github.vvpanf.campusapi.dto.ReservationDto;
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.dto.UserDto;
+import com.github.vvpanf.campusapi.event.RoomChangedEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users, rooms and reservations from CSV read as a stream: rows are parsed and validated one
+ * at a time and written by JDBC batches of {@code campus.import.batch-size}, each committed in its own
+ * transaction, so memory does not grow with the file. Nothing goes through the persistence context,
+ * which therefore has nothing to flush or clear. Invalid rows are skipped and reported by line.
+ */
+@Service
+public class CsvImportService {
+    private static final List<String> USER_COLUMNS = List.of("full_name", "date_of_birth", "email");
+    private static final List<String> ROOM_COLUMNS = List.of("campus_id", "number", "type", "capacity");
+    private static final List<String> RESERVATION_COLUMNS = List.of("user_id", "date_of_reserv", "start_time", "end_time", "comment", "people_count");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ReservationService reservationService;
+    private final ChangeLogService changeLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public CsvImportService(NamedParameterJdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            Validator validator,
+                            ReservationService reservationService,
+                            ChangeLogService changeLogService,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${campus.import.batch-size:1000}") int batchSize,
+                            @Value("${campus.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.reservationService = reservationService;
+        this.changeLogService = changeLogService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    private record CsvRow<T>(long line, T value) {}
+
+    private record CampusRoom(Long campusId, RoomDto room) {}
+
+    private record UserReservation(Long userId, ReservationDto reservation) {}
+
+    private interface ChunkWriter<T> {
+        /**
+         * Writes the rows that pass the checks against the database and returns errors of the others.
+         */
+        List<ImportErrorDto> write(List<CsvRow<T>> rows);
+    }
+
+    private class Progress {
+        long imported;
+        long failed;
+        final List<ImportErrorDto> errors = new ArrayList<>();
+
+        void fail(ImportErrorDto error) {
+            failed++;
+            if (errors.size() < maxErrors) errors.add(error);
+        }
+    }
+
+    public ImportResultDto importUsers(InputStream csv) {
+        return importCsv(csv, USER_COLUMNS, this::parseUser, this::writeUsers);
+    }
+
+    public ImportResultDto importRooms(InputStream csv) {
+        return importCsv(csv, ROOM_COLUMNS, this::parseRoom, this::writeRooms);
+    }
+
+    public ImportResultDto importReservations(InputStream csv) {
+        return importCsv(csv, RESERVATION_COLUMNS, this::parseReservation, this::writeReservations);
+    }
+
+    private <T> ImportResultDto importCsv(InputStream csv, List<String> columns, Function<List<String>, T> parser, ChunkWriter<T> writer) {
+        Progress progress = new Progress();
+        try {
+            CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+            List<String> header = reader.next();
+            if (header == null || !columns.equals(header.stream().map(column -> column.replace("\uFEFF", "").trim().toLowerCase()).toList())) {
+                throw new ValidationException("Заголовок CSV должен быть: " + String.join(",", columns));
+            }
+            List<CsvRow<T>> chunk = new ArrayList<>(batchSize);
+            for (List<String> fields = reader.next(); fields != null; fields = reader.next()) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+                if (fields.size() != columns.size()) {
+                    progress.fail(new ImportErrorDto(reader.line(), "Ожидается столбцов: " + columns.size() + ", получено: " + fields.size()));
+                    continue;
+                }
+                try {
+                    chunk.add(new CsvRow<>(reader.line(), parser.apply(fields)));
+                } catch (ValidationException e) {
+                    progress.fail(new ImportErrorDto(reader.line(), e.getMessage()));
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    progress.fail(new ImportErrorDto(reader.line(), "Неверный формат значения: " + e.getMessage()));
+                }
+                if (chunk.size() == batchSize) {
+                    write(chunk, writer, progress);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            write(chunk, writer, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ImportResultDto(progress.imported, progress.failed, progress.errors);
+    }
+
+    private <T> void write(List<CsvRow<T>> chunk, ChunkWriter<T> writer, Progress progress) {
+        if (chunk.isEmpty()) return;
+        try {
+            List<ImportErrorDto> rejected = transactionTemplate.execute(status -> writer.write(chunk));
+            progress.imported += chunk.size() - rejected.size();
+            rejected.forEach(progress::fail);
+        } catch (DataAccessException e) {
+            String message = "Ошибка записи: " + e.getMostSpecificCause().getMessage();
+            chunk.forEach(row -> progress.fail(new ImportErrorDto(row.line(), message)));
+        }
+    }
+
+    private UserDto parseUser(List<String> fields) {
+        UserDto user = new UserDto(null, fields.get(0), date(fields.get(1)), fields.get(2));
+        validate(user);
+        return user;
+    }
+
+    private CampusRoom parseRoom(List<String> fields) {
+        Long campusId = number(fields.get(0));
+        if (campusId == null) throw new ValidationException("Не указан корпус");
+        RoomDto room = new RoomDto(null, fields.get(1), fields.get(2), integer(fields.get(3)));
+        validate(room);
+        return new CampusRoom(campusId, room);
+    }
+
+    private UserReservation parseReservation(List<String> fields) {
+        Long userId = number(fields.get(0));
+        if (userId == null) throw new ValidationException("Не указан пользователь");
+        ReservationDto reservation = new ReservationDto(null, date(fields.get(1)), time(fields.get(2)), time(fields.get(3)),
+                fields.get(4).isEmpty() ? null : fields.get(4), integer(fields.get(5)));
+        reservationService.validateReservation(reservation);
+        return new UserReservation(userId, reservation);
+    }
+
+    private List<ImportErrorDto> writeUsers(List<CsvRow<UserDto>> rows) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate("insert into usr (full_name, date_of_birth, email) values (?, ?, ?)",
+                rows.stream().map(row -> new Object[] {row.value().getFullName(), row.value().getDateOfBirth(), row.value().getEmail()}).toList());
+        return List.of();
+    }
+
+    private List<ImportErrorDto> writeRooms(List<CsvRow<CampusRoom>> rows) {
+        Set<Long> campusIds = existingIds("campus", rows.stream().map(row -> row.value().campusId()).collect(Collectors.toSet()));
+        List<ImportErrorDto> rejected = new ArrayList<>();
+        List<CampusRoom> rooms = new ArrayList<>(rows.size());
+        for (CsvRow<CampusRoom> row : rows) {
+            if (campusIds.contains(row.value().campusId())) rooms.add(row.value());
+            else rejected.add(new ImportErrorDto(row.line(), "Не найден корпус " + row.value().campusId()));
+        }
+        List<Long> roomIds = insertReturningIds("insert into room (number, type, capacity, campus_id) values (?, ?, ?, ?)", rooms,
+                room -> new Object[] {room.room().getNumber(), room.room().getType(), room.room().getCapacity(), room.campusId()});
+        changeLogService.recordRoomsUpserted(roomIds);
+        Map<Long, Long> lastRoomByCampus = new HashMap<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            lastRoomByCampus.put(rooms.get(i).campusId(), roomIds.get(i));
+        }
+        lastRoomByCampus.forEach((campusId, roomId) -> eventPublisher.publishEvent(new RoomChangedEvent(campusId, roomId)));
+        return rejected;
+    }
+
+    private List<ImportErrorDto> writeReservations(List<CsvRow<UserReservation>> rows) {
+        Set<Long> userIds = existingIds("usr", rows.stream().map(row -> row.value().userId()).collect(Collectors.toSet()));
+        List<ImportErrorDto> rejected = new ArrayList<>();
+        List<UserReservation> reservations = new ArrayList<>(rows.size());
+        for (CsvRow<UserReservation> row : rows) {
+            if (userIds.contains(row.value().userId())) reservations.add(row.value());
+            else rejected.add(new ImportErrorDto(row.line(), "Не найден пользователь " + row.value().userId()));
+        }
+        List<Long> reservationIds = insertReturningIds("insert into reservation (date_of_reserv, start_time, end_time, comment, people_count, user_id) " +
+                        "values (?, ?, ?, ?, ?, ?)", reservations,
+                value -> {
+                    ReservationDto reservation = value.reservation();
+                    return new Object[] {reservation.getDateOfReserv(), reservation.getStartTime(), reservation.getEndTime(),
+                            reservation.getComment(), reservation.getPeopleCount(), value.userId()};
+                });
+        changeLogService.recordReservationsUpserted(reservationIds);
+        return rejected;
+    }
+
+    private Set<Long> existingIds(String table, Set<Long> ids) {
+        return new HashSet<>(jdbcTemplate.queryForList("select id from " + table + " where id in (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    private <T> List<Long> insertReturningIds(String sql, List<T> values, Function<T, Object[]> parameters) {
+        if (values.isEmpty()) return List.of();
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (T value : values) {
+                    Object[] args = parameters.apply(value);
+                    for (int i = 0; i < args.length; i++) {
+                        statement.setObject(i + 1, args[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(values.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    private void validate(Object dto) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")));
+        }
+    }
+
+    private LocalDate date(String value) {
+        return value.isBlank() ? null : LocalDate.parse(value.trim());
+    }
+
+    private LocalTime time(String value) {
+        return value.isBlank() ? null : LocalTime.parse(value.trim());
+    }
+
+    private Long number(String value) {
+        return value.isBlank() ? null : Long.valueOf(value.trim());
+    }
+
+    private Integer integer(String value) {
+        return value.isBlank() ? null : Integer.valueOf(value.trim());
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.vvpanf.campusapi.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV (RFC 4180) one record at a time: fields separated by commas, optionally in double
+ * quotes with {@code ""} standing for a quote; quoted fields may contain commas and line breaks.
+ */
+class CsvReader {
+    private final Reader reader;
+    private long line;
+    private long nextLine = 1;
+
+    /**
+     * @param reader must support {@link Reader#mark(int)}, e.g. a {@link java.io.BufferedReader}
+     */
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the fields of the next record, or {@code null} at the end of input.
+     */
+    List<String> next() throws IOException {
+        line = nextLine;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                if (empty) return null;
+                fields.add(field.toString());
+                return fields;
+            }
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') nextLine++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                nextLine++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Line number, starting from 1, where the record last returned by {@link #next()} begins.
+     */
+    long line() {
+        return line;
+    }
+}
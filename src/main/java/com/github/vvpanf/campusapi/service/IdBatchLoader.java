@@ -0,0 +1,58 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.MultiGetDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Loads items for a list of ids with one {@code IN} query per {@code campus.multi-get.batch-size}
+ * distinct ids and puts them back in request order, listing the ids that were not found.
+ */
+@Component
+public class IdBatchLoader {
+    private final int maxIds;
+    private final int batchSize;
+
+    public IdBatchLoader(@Value("${campus.multi-get.max-ids:1000}") int maxIds,
+                         @Value("${campus.multi-get.batch-size:500}") int batchSize) {
+        this.maxIds = maxIds;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Rejects an id list with empty entries, such as {@code ids=1,,2}, or with more distinct ids than allowed.
+     */
+    public void validate(List<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) throw new ValidationException("Список id не может содержать пустые значения");
+        if (ids.stream().distinct().count() > maxIds) throw new ValidationException("Количество id в запросе не может превышать " + maxIds);
+    }
+
+    /**
+     * @param loader loads the items of one batch of ids, keyed by id
+     */
+    public <T> MultiGetDto<T> load(List<Long> ids, Function<List<Long>, Map<Long, T>> loader) {
+        validate(ids);
+        List<Long> distinct = ids.stream().distinct().toList();
+        Map<Long, T> found = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += batchSize) {
+            found.putAll(loader.apply(distinct.subList(from, Math.min(from + batchSize, distinct.size()))));
+        }
+        ScannedRows.add(found.size());
+        List<T> content = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            T item = found.get(id);
+            if (item != null) content.add(item);
+            else missing.add(id);
+        }
+        return new MultiGetDto<>(content, missing);
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.vvpanf.campusapi.service;
+
+/**
+ * State of an {@code Idempotency-Key}: the hash of the request body it was first used with and the response
+ * to replay, which is {@code null} while the first request is still running.
+ */
+public record IdempotencyEntry(String requestHash, IdempotentResponse response) {
+    public boolean isPending() {
+        return response == null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.vvpanf.campusapi.service;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+    Optional<IdempotencyEntry> find(String key);
+
+    /**
+     * Claims the key for a request with the given body hash; returns {@code false} if the key is already claimed
+     * or answered, so only one request with the key runs at a time.
+     */
+    boolean reserve(String key, String requestHash);
+
+    void save(String key, String requestHash, IdempotentResponse response);
+
+    /**
+     * Drops the claim of a request whose response is not stored, so the key can be retried.
+     */
+    void release(String key);
+}
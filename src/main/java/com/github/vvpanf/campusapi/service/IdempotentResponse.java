@@ -0,0 +1,6 @@
+package com.github.vvpanf.campusapi.service;
+
+/**
+ * Response of a request made with an {@code Idempotency-Key}, replayed to retries of the request.
+ */
+public record IdempotentResponse(int status, String contentType, String location, byte[] body) {}
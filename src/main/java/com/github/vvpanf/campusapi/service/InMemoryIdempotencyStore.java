@@ -0,0 +1,74 @@
+package com.github.vvpanf.campusapi.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps responses of the node in an insertion-ordered map; the oldest entries are dropped once
+ * {@code max-entries} is reached, and entries older than {@code ttl} are never returned.
+ */
+@Service
+@ConditionalOnProperty(prefix = "campus.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+
+    @Autowired
+    public InMemoryIdempotencyStore(@Value("${campus.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${campus.idempotency.max-entries:10000}") int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    InMemoryIdempotencyStore(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > InMemoryIdempotencyStore.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyEntry> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return Optional.empty();
+        if (entry.expiresAt().isBefore(clock.instant())) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    @Override
+    public synchronized boolean reserve(String key, String requestHash) {
+        if (find(key).isPresent()) return false;
+        entries.put(key, new Entry(new IdempotencyEntry(requestHash, null), clock.instant().plus(ttl)));
+        return true;
+    }
+
+    @Override
+    public synchronized void save(String key, String requestHash, IdempotentResponse response) {
+        entries.put(key, new Entry(new IdempotencyEntry(requestHash, response), clock.instant().plus(ttl)));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        entries.remove(key);
+    }
+
+    private record Entry(IdempotencyEntry value, Instant expiresAt) {}
+}
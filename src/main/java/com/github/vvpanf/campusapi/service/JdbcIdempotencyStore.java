@@ -0,0 +1,82 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.entity.IdempotencyRecord;
+import com.github.vvpanf.campusapi.repo.IdempotencyRecordRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps responses in the {@code idempotency_key} table, so a retry is replayed by any node.
+ * A request claims its key by inserting a row without response first; the primary key makes the
+ * claim exclusive across nodes, and the row expires after {@code pending-ttl} if the node dies.
+ * Expired rows are deleted by a scheduled job.
+ */
+@Service
+@Transactional
+@ConditionalOnProperty(prefix = "campus.idempotency", name = "store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private final IdempotencyRecordRepo idempotencyRecordRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+
+    public JdbcIdempotencyStore(IdempotencyRecordRepo idempotencyRecordRepo, TransactionTemplate transactionTemplate,
+                                @Value("${campus.idempotency.ttl:24h}") Duration ttl,
+                                @Value("${campus.idempotency.pending-ttl:1m}") Duration pendingTtl) {
+        this.idempotencyRecordRepo = idempotencyRecordRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+    }
+
+    /**
+     * Reads the primary, not the replica: a claim of another node must be seen as soon as it is committed.
+     */
+    @Override
+    public Optional<IdempotencyEntry> find(String key) {
+        return idempotencyRecordRepo.findByKeyAndExpiresAtAfter(key, Instant.now())
+                .map(record -> new IdempotencyEntry(record.getRequestHash(), record.getStatus() == null ? null
+                        : new IdempotentResponse(record.getStatus(), record.getContentType(), record.getLocation(), record.getBody())));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean reserve(String key, String requestHash) {
+        Instant now = Instant.now();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                idempotencyRecordRepo.deleteExpired(key, now);
+                idempotencyRecordRepo.insertPending(key, requestHash, now.plus(pendingTtl));
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void save(String key, String requestHash, IdempotentResponse response) {
+        idempotencyRecordRepo.save(new IdempotencyRecord(key, requestHash, response.status(), response.contentType(),
+                response.location(), response.body(), Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public void release(String key) {
+        idempotencyRecordRepo.deleteById(key);
+    }
+
+    @Scheduled(fixedDelayString = "${campus.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        idempotencyRecordRepo.deleteAllExpired(Instant.now());
+    }
+}
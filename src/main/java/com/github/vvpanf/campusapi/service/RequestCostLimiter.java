@@ -0,0 +1,86 @@
+package com.github.vvpanf.campusapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token bucket per client where a token is one row. A request takes its page size up front and
+ * is charged afterwards for the rows it scanned in memory; a client in debt is rejected until the
+ * bucket refills. Buckets that are full again carry no state and are dropped when the map grows.
+ */
+@Service
+public class RequestCostLimiter {
+    private final long capacity;
+    private final long refillPerSecond;
+    private final int maxClients;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public RequestCostLimiter(@Value("${campus.rate-limit.capacity:5000}") long capacity,
+                              @Value("${campus.rate-limit.refill-per-second:500}") long refillPerSecond,
+                              @Value("${campus.rate-limit.max-clients:10000}") int maxClients) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxClients = maxClients;
+    }
+
+    public boolean tryAcquire(String client, long rows) {
+        if (buckets.size() > maxClients) {
+            long now = System.nanoTime();
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.computeIfAbsent(client, key -> new Bucket(capacity)).tryAcquire(rows, System.nanoTime());
+    }
+
+    public void charge(String client, long rows) {
+        if (rows <= 0) return;
+        Bucket bucket = buckets.get(client);
+        if (bucket != null) {
+            bucket.charge(rows, System.nanoTime());
+        }
+    }
+
+    public long secondsUntilAvailable(String client, long rows) {
+        Bucket bucket = buckets.get(client);
+        if (bucket == null) return 0;
+        return bucket.secondsUntilAvailable(rows, System.nanoTime());
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long updatedAt = System.nanoTime();
+
+        private Bucket(long tokens) {
+            this.tokens = tokens;
+        }
+
+        synchronized boolean tryAcquire(long rows, long now) {
+            refill(now);
+            if (tokens < rows) return false;
+            tokens -= rows;
+            return true;
+        }
+
+        synchronized void charge(long rows, long now) {
+            refill(now);
+            tokens -= rows;
+        }
+
+        synchronized long secondsUntilAvailable(long rows, long now) {
+            refill(now);
+            return tokens >= rows ? 0 : (long) Math.ceil((rows - tokens) / refillPerSecond);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * refillPerSecond / 1e9);
+            updatedAt = now;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves reservations dated before today, with their room links, into {@code reservation_archive} and
+ * {@code room_in_reservation_archive}. Each batch is copied and deleted in its own transaction, so the
+ * live tables are locked only briefly and an interrupted run is continued by the next one.
+ */
+@Service
+public class ReservationArchiveService {
+    private final ReservationRepo reservationRepo;
+    private final ReservationArchiveRepo reservationArchiveRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Clock clock;
+
+    @Autowired
+    public ReservationArchiveService(ReservationRepo reservationRepo,
+                                     ReservationArchiveRepo reservationArchiveRepo,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${campus.archive.batch-size:1000}") int batchSize) {
+        this(reservationRepo, reservationArchiveRepo, transactionTemplate, batchSize, Clock.systemDefaultZone());
+    }
+
+    ReservationArchiveService(ReservationRepo reservationRepo, ReservationArchiveRepo reservationArchiveRepo,
+                              TransactionTemplate transactionTemplate, int batchSize, Clock clock) {
+        this.reservationRepo = reservationRepo;
+        this.reservationArchiveRepo = reservationArchiveRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${campus.archive.cron:0 30 3 * * *}")
+    public int archivePastReservations() {
+        LocalDate today = LocalDate.now(clock);
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(today));
+            archived += moved;
+        } while (moved == batchSize);
+        return archived;
+    }
+
+    private int archiveBatch(LocalDate today) {
+        List<Long> ids = reservationRepo.findIdsByDateOfReservBefore(today, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) return 0;
+        reservationArchiveRepo.copyReservations(ids);
+        reservationArchiveRepo.copyReservationRooms(ids);
+        reservationRepo.deleteRoomLinksByReservationIdIn(ids);
+        reservationRepo.deleteAllByIdIn(ids);
+        return ids.size();
+    }
+}
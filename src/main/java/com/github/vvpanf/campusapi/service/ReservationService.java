@@ -1,25 +1,42 @@
 package com.github.vvpanf.campusapi.service;
 
 import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.MultiGetDto;
 import com.github.vvpanf.campusapi.dto.ReservationDto;
+import com.github.vvpanf.campusapi.dto.ReservationRoomDto;
+import com.github.vvpanf.campusapi.dto.ReservationWithRoomsDto;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry.EntityType;
 import com.github.vvpanf.campusapi.entity.Reservation;
 import com.github.vvpanf.campusapi.entity.Room;
+import com.github.vvpanf.campusapi.event.ReservationRoomAddedEvent;
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
+import com.github.vvpanf.campusapi.repo.ReservationHistoryView;
 import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRoomView;
+import com.github.vvpanf.campusapi.repo.ReservationRow;
 import com.github.vvpanf.campusapi.repo.RoomRepo;
+import com.github.vvpanf.campusapi.repo.RoomUsageRow;
 import com.github.vvpanf.campusapi.repo.UserRepo;
-import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -29,16 +46,61 @@ public class ReservationService {
     ReservationRepo reservationRepo;
     UserRepo userRepo;
     RoomRepo roomRepo;
+    ReservationArchiveRepo reservationArchiveRepo;
     ModelMapper modelMapper;
+    IdBatchLoader idBatchLoader;
+    SparseFieldsQuery sparseFieldsQuery;
+    UsageRollupService usageRollupService;
+    ChangeLogService changeLogService;
+    ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
     public Page<ReservationDto> getReservationsByUserId(Long userId, Pageable pageable) {
-        return reservationRepo.findAllByUserId(userId, pageable).map(reservation -> modelMapper.map(reservation, ReservationDto.class));
+        return reservationRepo.findRowsByUserId(userId, pageable).map(this::toReservationDto);
     }
 
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getReservationsByUserId(Long userId, Pageable pageable, List<String> fields) {
+        Specification<Reservation> where = (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+        return sparseFieldsQuery.findPage(Reservation.class, ReservationDto.class, fields, where, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ReservationDto> getReservationHistoryByUserId(Long userId, Pageable pageable) {
+        return reservationArchiveRepo.findHistoryByUserId(userId, pageable).map(this::toReservationDto);
+    }
+
+    /**
+     * Page of reservations with their rooms. Rooms of the whole page are loaded with one query over
+     * {@code room_in_reservation} and its archive, not per reservation.
+     */
+    @Transactional(readOnly = true)
+    public Page<ReservationWithRoomsDto> getReservationsWithRoomsByUserId(Long userId, Pageable pageable, boolean includeArchived) {
+        Page<ReservationDto> page = includeArchived
+                ? getReservationHistoryByUserId(userId, pageable)
+                : getReservationsByUserId(userId, pageable);
+        if (page.isEmpty()) return page.map(res -> withRooms(res, Collections.emptyList()));
+        List<ReservationRoomView> rows = reservationRepo.findRoomsByReservationIdIn(page.map(ReservationDto::getId).toList());
+        ScannedRows.add(rows.size());
+        Map<Long, List<ReservationRoomDto>> roomsByReservationId = rows.stream()
+                .collect(Collectors.groupingBy(ReservationRoomView::getReservationId, Collectors.mapping(row ->
+                        new ReservationRoomDto(row.getRoomId(), row.getNumber(), row.getType(), row.getCampusId(), row.getCampusName()),
+                        Collectors.toList())));
+        return page.map(res -> withRooms(res, roomsByReservationId.getOrDefault(res.getId(), Collections.emptyList())));
+    }
+
+    @Transactional(readOnly = true)
+    public MultiGetDto<ReservationDto> getReservationsByUserIdAndIds(Long userId, List<Long> ids) {
+        return idBatchLoader.load(ids, batch -> reservationRepo.findRowsByUserIdAndIdIn(userId, batch).stream()
+                .collect(Collectors.toMap(ReservationRow::id, this::toReservationDto)));
+    }
+
+    @Transactional(readOnly = true)
     public ReservationDto getReservationByUserIdAndId(Long userId, Long reservationId) {
         return reservationRepo.findByIdAndUserId(reservationId, userId).map(reservation -> modelMapper.map(reservation, ReservationDto.class)).orElse(null);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void validateReservation(ReservationDto res) throws ValidationException {
         if (res.getDateOfReserv() == null) throw new ValidationException("Не указана дата бронирования");
         if (res.getStartTime() == null) throw new ValidationException("Не указано время начала бронирования");
@@ -49,11 +111,12 @@ public class ReservationService {
     }
 
     public ReservationDto addReservation(Long userId, ReservationDto reservationDto) {
-        return userRepo.findById(userId).map(user -> {
-            Reservation reservation = reservationRepo.save(modelMapper.map(reservationDto, Reservation.class));
-            user.getReservations().add(reservation);
-            return modelMapper.map(reservation, ReservationDto.class);
-        }).orElse(null);
+        if (!userRepo.existsById(userId)) return null;
+        Reservation reservation = modelMapper.map(reservationDto, Reservation.class);
+        reservation.setUser(userRepo.getReferenceById(userId));
+        Reservation newReservation = reservationRepo.save(reservation);
+        changeLogService.recordUpsert(EntityType.RESERVATION, newReservation.getId());
+        return modelMapper.map(newReservation, ReservationDto.class);
     }
 
     public void validateReservationRoom(Long userId, Long reservationId, Long roomId) {
@@ -77,19 +140,59 @@ public class ReservationService {
         Room room = roomRepo.findById(roomId).get();
         reservation.getRooms().add(room);
         reservationRepo.save(reservation);
+        usageRollupService.recordReservationRoom(reservation, room);
+        changeLogService.recordUpsert(EntityType.RESERVATION, reservation.getId());
+        eventPublisher.publishEvent(new ReservationRoomAddedEvent(room.getCampus().getId(), room.getId(),
+                reservation.getDateOfReserv(), reservation.getStartTime(), reservation.getEndTime()));
+    }
+
+    public boolean deleteReservation(Long userId, Long reservationId) {
+        if (!reservationRepo.existsByIdAndUserId(reservationId, userId)) return false;
+        List<RoomUsageRow> rooms = reservationRepo.findRoomUsageRowsById(reservationId);
+        usageRollupService.removeUsage(rooms);
+        reservationRepo.deleteRoomLinksByReservationIdIn(List.of(reservationId));
+        reservationRepo.deleteInBulkByIdAndUserId(reservationId, userId);
+        changeLogService.recordDelete(EntityType.RESERVATION, reservationId);
+        rooms.forEach(room -> eventPublisher.publishEvent(new ReservationRoomRemovedEvent(room.campusId(), room.roomId(),
+                room.dateOfReserv(), room.startTime(), room.endTime())));
+        return true;
     }
 
+    @Transactional(readOnly = true)
     public Page<ReservationDto> getReservationsByCampusIdAndRoomId(Long campusId, Long roomId, Pageable pageable) {
         return roomRepo.findByIdAndCampusId(roomId, campusId)
             .map(room -> {
-                int start = (int) pageable.getOffset();
-                int end = Math.min((start + pageable.getPageSize()), room.getReservations().size());
-                List<ReservationDto> result = room.getReservations().stream()
-                        .skip(start)
-                        .limit(end - start)
-                        .map(res -> modelMapper.map(res, ReservationDto.class))
+                ScannedRows.add(room.getReservations().size());
+                List<Long> pageIds = room.getReservations().stream()
+                        .sorted(Comparator.comparing(Reservation::getDateOfReserv).thenComparing(Reservation::getStartTime))
+                        .skip(pageable.getOffset())
+                        .limit(pageable.getPageSize())
+                        .map(Reservation::getId)
                         .toList();
-                return new PageImpl<>(result);
+                if (pageIds.isEmpty()) return new PageImpl<ReservationDto>(Collections.emptyList());
+                Map<Long, ReservationDto> byId = reservationRepo.findRowsByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(ReservationRow::id, this::toReservationDto));
+                return new PageImpl<>(pageIds.stream().map(byId::get).toList());
             }).orElse(new PageImpl<>(Collections.emptyList()));
     }
+
+    @Transactional(readOnly = true)
+    public Page<ReservationDto> getReservationHistoryByCampusIdAndRoomId(Long campusId, Long roomId, Pageable pageable) {
+        if (!roomRepo.existsByIdAndCampusId(roomId, campusId)) return new PageImpl<>(Collections.emptyList());
+        return reservationArchiveRepo.findHistoryByRoomId(roomId, pageable).map(this::toReservationDto);
+    }
+
+    private ReservationWithRoomsDto withRooms(ReservationDto res, List<ReservationRoomDto> rooms) {
+        return new ReservationWithRoomsDto(res.getId(), res.getDateOfReserv(), res.getStartTime(), res.getEndTime(),
+                res.getComment(), res.getPeopleCount(), rooms);
+    }
+
+    private ReservationDto toReservationDto(ReservationRow row) {
+        return new ReservationDto(row.id(), row.dateOfReserv(), row.startTime(), row.endTime(), row.comment(), row.peopleCount());
+    }
+
+    private ReservationDto toReservationDto(ReservationHistoryView view) {
+        return new ReservationDto(view.getId(), view.getDateOfReserv(), view.getStartTime(), view.getEndTime(),
+                view.getComment(), view.getPeopleCount());
+    }
 }
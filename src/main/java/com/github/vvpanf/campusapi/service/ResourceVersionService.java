@@ -0,0 +1,90 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.event.CampusChangedEvent;
+import com.github.vvpanf.campusapi.event.RoomChangedEvent;
+import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.RoomRepo;
+import com.github.vvpanf.campusapi.repo.VersionStamp;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps ETag and Last-Modified of campus and room resources in memory, so conditional GETs
+ * are answered without touching the database. Entries are dropped after the changing
+ * transaction commits and are reloaded from the version columns on the next request.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ResourceVersionService {
+    CampusRepo campusRepo;
+    RoomRepo roomRepo;
+    Map<String, ResourceVersion> versions = new ConcurrentHashMap<>();
+
+    public record ResourceVersion(String etag, Instant lastModified) {}
+
+    public ResourceVersion getCampusVersion(Long campusId) {
+        return versions.computeIfAbsent(campusKey(campusId), key ->
+                campusRepo.findVersionById(campusId).map(stamp -> toVersion(key, stamp)).orElse(null));
+    }
+
+    /**
+     * Version of the room list taken from the change counter of the campus, so it never repeats after
+     * rooms are deleted and added. The list of a campus that does not exist has a version of its own.
+     */
+    public ResourceVersion getCampusRoomsVersion(Long campusId) {
+        return versions.computeIfAbsent(campusRoomsKey(campusId), key ->
+                campusRepo.findRoomsVersionById(campusId)
+                        .map(stamp -> new ResourceVersion(key + "-" + stamp.getVersion(), stamp.getUpdatedAt()))
+                        .orElseGet(() -> new ResourceVersion(key + "-none", null)));
+    }
+
+    public ResourceVersion getRoomVersion(Long campusId, Long roomId) {
+        return versions.computeIfAbsent(roomKey(campusId, roomId), key ->
+                roomRepo.findVersionByIdAndCampusId(roomId, campusId).map(stamp -> toVersion(key, stamp)).orElse(null));
+    }
+
+    @TransactionalEventListener
+    public void onCampusChanged(CampusChangedEvent event) {
+        String campusKey = campusKey(event.campusId());
+        versions.keySet().removeIf(key -> key.equals(campusKey) || key.startsWith(campusKey + "-"));
+    }
+
+    /**
+     * Bumps the room list counter of the campus in the transaction that inserts or deletes the room.
+     */
+    @EventListener
+    public void recordRoomChange(RoomChangedEvent event) {
+        campusRepo.incrementRoomsVersion(event.campusId(), Instant.now());
+    }
+
+    @TransactionalEventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        versions.remove(campusRoomsKey(event.campusId()));
+        versions.remove(roomKey(event.campusId(), event.roomId()));
+    }
+
+    private ResourceVersion toVersion(String key, VersionStamp stamp) {
+        return new ResourceVersion(key + "-" + stamp.getVersion(), stamp.getUpdatedAt());
+    }
+
+    private String campusKey(Long campusId) {
+        return "campus-" + campusId;
+    }
+
+    private String campusRoomsKey(Long campusId) {
+        return "campus-" + campusId + "-rooms";
+    }
+
+    private String roomKey(Long campusId, Long roomId) {
+        return "campus-" + campusId + "-room-" + roomId;
+    }
+}
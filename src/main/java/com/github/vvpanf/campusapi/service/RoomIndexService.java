@@ -0,0 +1,51 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.event.CampusChangedEvent;
+import com.github.vvpanf.campusapi.event.RoomChangedEvent;
+import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.RoomRepo;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.modelmapper.ModelMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-campus {@link CampusRoomIndex}, built on first use and dropped after a room of the campus changes.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RoomIndexService {
+    CampusRepo campusRepo;
+    RoomRepo roomRepo;
+    ModelMapper modelMapper;
+    Map<Long, CampusRoomIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * @return the index of the campus, or {@code null} when there is no such campus; nothing is cached then,
+     * so requests for made-up campus ids do not fill the map
+     */
+    public CampusRoomIndex getIndex(Long campusId) {
+        return indexes.computeIfAbsent(campusId, id -> campusRepo.existsById(id)
+                ? new CampusRoomIndex(roomRepo.findAllByCampusId(id).stream()
+                        .map(room -> modelMapper.map(room, RoomDto.class))
+                        .toList())
+                : null);
+    }
+
+    @TransactionalEventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        indexes.remove(event.campusId());
+    }
+
+    @TransactionalEventListener
+    public void onCampusChanged(CampusChangedEvent event) {
+        indexes.remove(event.campusId());
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RoomMatchService {
+    RoomIndexService roomIndexService;
+    ReservationRepo reservationRepo;
+
+    /**
+     * Picks the smallest free room that seats {@code peopleCount}. When no single room is big enough,
+     * takes the largest free rooms until the rest fits into one more room, which is again the smallest
+     * that fits; this gives the minimal number of rooms. Returns an empty list when the free rooms of
+     * the campus cannot seat everyone, and {@code null} when there is no such campus.
+     */
+    public List<RoomDto> matchRooms(Long campusId, LocalDate date, LocalTime startTime, LocalTime endTime, Integer peopleCount) {
+        if (!startTime.isBefore(endTime)) throw new ValidationException("Время начала резервирования должно предшествовать времени окончания");
+        if (peopleCount < 1) throw new ValidationException("Количество человек должно быть больше нуля");
+        CampusRoomIndex index = roomIndexService.getIndex(campusId);
+        if (index == null) return null;
+        Set<Long> busyRoomIds = reservationRepo.findBusyRoomIds(campusId, date, startTime, endTime);
+        BitSet taken = new BitSet(index.size());
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            if (busyRoomIds.contains(index.getRoom(ordinal).getId())) taken.set(ordinal);
+        }
+
+        List<RoomDto> result = new ArrayList<>();
+        int remaining = peopleCount;
+        while (remaining > 0) {
+            int fit = firstFree(index.getOrdinalsByCapacity().tailMap(remaining, true), taken);
+            if (fit >= 0) {
+                result.add(index.getRoom(fit));
+                return result;
+            }
+            int largest = firstFree(index.getOrdinalsByCapacity().descendingMap(), taken);
+            if (largest < 0) return Collections.emptyList();
+            taken.set(largest);
+            result.add(index.getRoom(largest));
+            remaining -= index.getRoom(largest).getCapacity();
+        }
+        return result;
+    }
+
+    private int firstFree(Map<Integer, List<Integer>> ordinalsByCapacity, BitSet taken) {
+        for (List<Integer> ordinals : ordinalsByCapacity.values()) {
+            for (int ordinal : ordinals) {
+                if (!taken.get(ordinal)) return ordinal;
+            }
+        }
+        return -1;
+    }
+}
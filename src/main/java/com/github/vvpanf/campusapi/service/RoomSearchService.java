@@ -0,0 +1,105 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.PageDto;
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.dto.RoomSearchDto;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RoomSearchService {
+    RoomIndexService roomIndexService;
+    ReservationRepo reservationRepo;
+
+    public record FacetSearchParams(String type, Integer minCapacity, Integer maxCapacity,
+                                    LocalDate reservationDate, LocalTime availableFrom, LocalTime availableUntil) {}
+
+    /**
+     * Filters the campus rooms by type, capacity range and availability, and counts the matches per type
+     * and per capacity band. Every facet is counted with the other filters applied but not its own, so the
+     * client can show how many rooms each choice would give.
+     *
+     * @return {@code null} when there is no such campus
+     */
+    public RoomSearchDto searchRooms(Long campusId, Pageable pageable, FacetSearchParams params) {
+        if (params.minCapacity() != null && params.maxCapacity() != null && params.minCapacity() > params.maxCapacity())
+            throw new ValidationException("Минимальная вместимость не может быть больше максимальной");
+        boolean availability = params.reservationDate() != null || params.availableFrom() != null || params.availableUntil() != null;
+        if (availability && (params.reservationDate() == null || params.availableFrom() == null || params.availableUntil() == null))
+            throw new ValidationException("Для проверки доступности нужно указать дату, время начала и время окончания");
+        CampusRoomIndex index = roomIndexService.getIndex(campusId);
+        if (index == null) return null;
+
+        BitSet available = index.all();
+        if (availability) {
+            if (!params.availableFrom().isBefore(params.availableUntil()))
+                throw new ValidationException("Время начала резервирования должно предшествовать времени окончания");
+            Set<Long> busyRoomIds = reservationRepo.findBusyRoomIds(campusId, params.reservationDate(),
+                    params.availableFrom(), params.availableUntil());
+            for (int ordinal = available.nextSetBit(0); ordinal >= 0; ordinal = available.nextSetBit(ordinal + 1)) {
+                if (busyRoomIds.contains(index.getRoom(ordinal).getId())) available.clear(ordinal);
+            }
+        }
+        BitSet byType = params.type() == null
+                ? index.all()
+                : (BitSet) index.getOrdinalsByType().getOrDefault(params.type(), new BitSet()).clone();
+        BitSet byCapacity = params.minCapacity() == null && params.maxCapacity() == null
+                ? index.all()
+                : index.capacityBetween(params.minCapacity(), params.maxCapacity());
+
+        BitSet matched = (BitSet) available.clone();
+        matched.and(byType);
+        matched.and(byCapacity);
+
+        BitSet withoutType = (BitSet) available.clone();
+        withoutType.and(byCapacity);
+        BitSet withoutCapacity = available;
+        withoutCapacity.and(byType);
+
+        return new RoomSearchDto(
+                PageDto.of(page(index, matched, pageable)),
+                countIntersections(index.getOrdinalsByType(), withoutType),
+                countIntersections(index.getOrdinalsByCapacityBand(), withoutCapacity));
+    }
+
+    private PageImpl<RoomDto> page(CampusRoomIndex index, BitSet matched, Pageable pageable) {
+        List<RoomDto> content = new ArrayList<>(pageable.getPageSize());
+        long skip = pageable.getOffset();
+        for (int ordinal = matched.nextSetBit(0); ordinal >= 0 && content.size() < pageable.getPageSize();
+             ordinal = matched.nextSetBit(ordinal + 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                content.add(index.getRoom(ordinal));
+            }
+        }
+        return new PageImpl<>(content, pageable, matched.cardinality());
+    }
+
+    private Map<String, Integer> countIntersections(Map<String, BitSet> facets, BitSet filter) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        facets.forEach((value, ordinals) -> {
+            BitSet intersection = (BitSet) ordinals.clone();
+            intersection.and(filter);
+            counts.put(value, intersection.cardinality());
+        });
+        return counts;
+    }
+}
@@ -1,65 +1,148 @@
 package com.github.vvpanf.campusapi.service;
 
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.MultiGetDto;
+import com.github.vvpanf.campusapi.dto.ReservationDto;
 import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.dto.TimetableRoomDto;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry.EntityType;
 import com.github.vvpanf.campusapi.entity.Room;
+import com.github.vvpanf.campusapi.event.RoomChangedEvent;
 import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
 import com.github.vvpanf.campusapi.repo.RoomRepo;
-import jakarta.transaction.Transactional;
+import com.github.vvpanf.campusapi.repo.TimetableRow;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class RoomService {
+    private static final int TIMETABLE_MAX_DAYS = 31;
     RoomRepo roomRepo;
     CampusRepo campusRepo;
+    ReservationRepo reservationRepo;
+    UsageRollupService usageRollupService;
+    ChangeLogService changeLogService;
     ModelMapper modelMapper;
+    RoomIndexService roomIndexService;
+    IdBatchLoader idBatchLoader;
+    ApplicationEventPublisher eventPublisher;
 
     public record RoomSearchParams(LocalDate reservationDate, LocalTime availableFrom, LocalTime availableUntil, Integer minNumberOfSeats) {}
 
+    @Transactional(readOnly = true)
     public Page<RoomDto> getRoomsByCampusId(Long campusId, Pageable pageable) {
         return roomRepo.findAllByCampusId(campusId, pageable).map(room -> modelMapper.map(room, RoomDto.class));
     }
 
+    @Transactional(readOnly = true)
     public Page<RoomDto> getRoomsFiltered(Long campusId, Pageable pageable, RoomSearchParams searchParams) {
-        List<RoomDto> result = roomRepo.findAllByCampusId(campusId).stream()
+        List<Room> rooms = roomRepo.findAllByCampusId(campusId);
+        ScannedRows.add(rooms.size());
+        List<RoomDto> result = rooms.stream()
                 .filter(room -> filterByMinNumberOfSeats(searchParams, room))
                 .filter(room -> filterByAvailableFrom(searchParams, room))
                 .filter(room -> filterByAvailableUnlit(searchParams, room))
                 .filter(room -> filterByAvailableFromAndAvailableUnlit(searchParams, room))
                 .map(room -> modelMapper.map(room, RoomDto.class))
                 .toList();
-        int start = (int) pageable.getOffset();
+        int start = (int) Math.min(pageable.getOffset(), result.size());
         int end = Math.min((start + pageable.getPageSize()), result.size());
         return new PageImpl<>(result.subList(start, end), pageable, result.size());
     }
 
+    /**
+     * Rooms of the campus with their reservations between the dates, loaded by one query ordered
+     * by room and grouped in a single pass.
+     */
+    @Transactional(readOnly = true)
+    public List<TimetableRoomDto> getCampusTimetable(Long campusId, LocalDate dateFrom, LocalDate dateTo) {
+        if (dateTo.isBefore(dateFrom)) throw new ValidationException("Дата окончания периода не может быть раньше даты начала");
+        if (ChronoUnit.DAYS.between(dateFrom, dateTo) >= TIMETABLE_MAX_DAYS) throw new ValidationException("Период расписания не может превышать " + TIMETABLE_MAX_DAYS + " дней");
+        List<TimetableRow> rows = roomRepo.findTimetableRows(campusId, dateFrom, dateTo);
+        ScannedRows.add(rows.size());
+        List<TimetableRoomDto> result = new ArrayList<>();
+        TimetableRoomDto current = null;
+        for (TimetableRow row : rows) {
+            if (current == null || !current.getId().equals(row.roomId())) {
+                current = new TimetableRoomDto(row.roomId(), row.number(), row.type(), row.capacity(), new ArrayList<>());
+                result.add(current);
+            }
+            if (row.reservationId() != null) {
+                current.getReservations().add(new ReservationDto(row.reservationId(), row.dateOfReserv(),
+                        row.startTime(), row.endTime(), row.comment(), row.peopleCount()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rooms of the campus by id, taken from the cached {@link CampusRoomIndex} of the campus.
+     *
+     * @return {@code null} when there is no such campus
+     */
+    @Transactional(readOnly = true)
+    public MultiGetDto<RoomDto> getRoomsByCampusIdAndIds(Long campusId, List<Long> ids) {
+        idBatchLoader.validate(ids);
+        CampusRoomIndex index = roomIndexService.getIndex(campusId);
+        if (index == null) return null;
+        return idBatchLoader.load(ids, batch -> {
+            Map<Long, RoomDto> rooms = new HashMap<>();
+            for (Long id : batch) {
+                RoomDto room = index.findRoom(id);
+                if (room != null) rooms.put(id, room);
+            }
+            return rooms;
+        });
+    }
+
+    @Transactional(readOnly = true)
     public RoomDto getRoomByIdAndCampusId(Long campusId, Long roomId) {
         return roomRepo.findByIdAndCampusId(roomId, campusId).map(room -> modelMapper.map(room, RoomDto.class)).orElse(null);
     }
 
     public RoomDto addRoom(Long campusId, RoomDto roomDto) {
-        return campusRepo.findById(campusId).map(campus -> {
-            Room newRoom = roomRepo.save(modelMapper.map(roomDto, Room.class));
-            campus.getRooms().add(newRoom);
-            return modelMapper.map(newRoom, RoomDto.class);
-        }).orElse(null);
+        if (!campusRepo.existsById(campusId)) return null;
+        Room room = modelMapper.map(roomDto, Room.class);
+        room.setCampus(campusRepo.getReferenceById(campusId));
+        Room newRoom = roomRepo.save(room);
+        changeLogService.recordUpsert(EntityType.ROOM, newRoom.getId());
+        eventPublisher.publishEvent(new RoomChangedEvent(campusId, newRoom.getId()));
+        return modelMapper.map(newRoom, RoomDto.class);
+    }
+
+    public boolean deleteRoom(Long campusId, Long roomId) {
+        if (!roomRepo.existsByIdAndCampusId(roomId, campusId)) return false;
+        reservationRepo.deleteRoomLinksByRoomId(roomId);
+        usageRollupService.deleteRoomUsage(campusId, roomId);
+        changeLogService.recordDelete(EntityType.ROOM, roomId);
+        roomRepo.deleteInBulkByIdAndCampusId(roomId, campusId);
+        eventPublisher.publishEvent(new RoomChangedEvent(campusId, roomId));
+        return true;
     }
 
     private boolean filterByMinNumberOfSeats(RoomSearchParams searchParams, Room room) {
-        return searchParams.minNumberOfSeats() == null || room.getCapacity() >= searchParams.minNumberOfSeats();
+        return searchParams.minNumberOfSeats() == null
+                || room.getCapacity() != null && room.getCapacity() >= searchParams.minNumberOfSeats();
     }
 
     private boolean filterByAvailableFrom(RoomSearchParams searchParams, Room room) {
@@ -0,0 +1,30 @@
+package com.github.vvpanf.campusapi.service;
+
+/**
+ * Counts rows a request walks through in memory beyond the returned page, so the request cost
+ * limiter can charge for them. Counting is active only between {@link #start()} and {@link #finish()}
+ * on the current thread.
+ */
+public final class ScannedRows {
+    private static final ThreadLocal<long[]> COUNTER = new ThreadLocal<>();
+
+    private ScannedRows() {
+    }
+
+    public static void start() {
+        COUNTER.set(new long[1]);
+    }
+
+    public static void add(long rows) {
+        long[] counter = COUNTER.get();
+        if (counter != null) {
+            counter[0] += rows;
+        }
+    }
+
+    public static long finish() {
+        long[] counter = COUNTER.get();
+        COUNTER.remove();
+        return counter == null ? 0 : counter[0];
+    }
+}
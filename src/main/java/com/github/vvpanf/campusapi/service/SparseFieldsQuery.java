@@ -0,0 +1,109 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Page of entities reduced to the requested fields of their DTO. Selects only those columns with a
+ * tuple query, so long columns that were not asked for are neither read nor serialized. Field names
+ * of the DTO must match the attributes of the entity; {@code id} is always returned.
+ */
+@Component
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SparseFieldsQuery {
+    private static final String ID = "id";
+    private static final Map<Class<?>, Set<String>> DTO_FIELDS = new ConcurrentHashMap<>();
+    EntityManager entityManager;
+
+    public <E> Page<Map<String, Object>> findPage(Class<E> entityClass, Class<?> dtoClass, Collection<String> fields,
+                                                  Specification<E> where, Pageable pageable) {
+        List<String> selected = select(dtoClass, fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityClass);
+        query.multiselect(selected.stream().<Selection<?>>map(field -> root.get(field).alias(field)).toList());
+        restrict(query, root, cb, where);
+        query.orderBy(QueryUtils.toOrders(pageable.getSortOr(Sort.by(ID)), root, cb));
+        List<Map<String, Object>> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultStream()
+                .map(tuple -> toMap(selected, tuple))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityClass, where));
+    }
+
+    /**
+     * Requested fields in request order after {@code id}, without duplicates.
+     */
+    List<String> select(Class<?> dtoClass, Collection<String> fields) {
+        Set<String> known = DTO_FIELDS.computeIfAbsent(dtoClass, SparseFieldsQuery::dtoFields);
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID);
+        for (String field : fields) {
+            String name = field.trim();
+            if (!known.contains(name)) throw new ValidationException("Неизвестное поле: " + name);
+            selected.add(name);
+        }
+        return List.copyOf(selected);
+    }
+
+    private <E> long count(Class<E> entityClass, Specification<E> where) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(entityClass);
+        query.select(cb.count(root));
+        restrict(query, root, cb, where);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <E> void restrict(CriteriaQuery<?> query, Root<E> root, CriteriaBuilder cb, Specification<E> where) {
+        Predicate predicate = where == null ? null : where.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+    }
+
+    private static Map<String, Object> toMap(List<String> fields, Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, tuple.get(field));
+        }
+        return row;
+    }
+
+    private static Set<String> dtoFields(Class<?> dtoClass) {
+        return Set.copyOf(Arrays.stream(dtoClass.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .toList());
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.UsageDto;
+import com.github.vvpanf.campusapi.entity.Reservation;
+import com.github.vvpanf.campusapi.entity.Room;
+import com.github.vvpanf.campusapi.entity.UsageRollup;
+import com.github.vvpanf.campusapi.entity.UsageRollup.Period;
+import com.github.vvpanf.campusapi.entity.UsageRollup.Scope;
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.RoomUsageRow;
+import com.github.vvpanf.campusapi.repo.UsageRollupRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Booked minutes per room and campus by day and week. Rollups are updated in the transaction that adds
+ * a room to a reservation, so reports read only {@code usage_rollup} and never scan reservations.
+ * A rebuild only adds the difference to the true totals, so it runs alongside those changes without blocking them.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UsageRollupService {
+    private static final int REBUILD_CHUNK_WEEKS = 4;
+    private static final int REBUILD_CHUNK_ATTEMPTS = 3;
+    private static final int USAGE_MAX_DAYS = 366;
+    UsageRollupRepo usageRollupRepo;
+    ReservationRepo reservationRepo;
+    ReservationArchiveRepo reservationArchiveRepo;
+    TransactionTemplate transactionTemplate;
+    ExecutorService rebuildExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), rebuildThreadFactory());
+
+    public void recordReservationRoom(Reservation reservation, Room room) {
+        long minutes = minutes(reservation.getStartTime(), reservation.getEndTime());
+        LocalDate day = reservation.getDateOfReserv();
+        LocalDate week = weekStart(day);
+        usageRollupRepo.addUsage(Scope.ROOM.name(), room.getId(), Period.DAY.name(), day, minutes, 1);
+        usageRollupRepo.addUsage(Scope.ROOM.name(), room.getId(), Period.WEEK.name(), week, minutes, 1);
+        usageRollupRepo.addUsage(Scope.CAMPUS.name(), room.getCampus().getId(), Period.DAY.name(), day, minutes, 1);
+        usageRollupRepo.addUsage(Scope.CAMPUS.name(), room.getCampus().getId(), Period.WEEK.name(), week, minutes, 1);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UsageDto> getUsage(Scope scope, Long scopeId, Period period, LocalDate dateFrom, LocalDate dateTo) {
+        if (dateTo.isBefore(dateFrom)) throw new ValidationException("Дата окончания периода не может быть раньше даты начала");
+        if (ChronoUnit.DAYS.between(dateFrom, dateTo) >= USAGE_MAX_DAYS) throw new ValidationException("Период отчета не может превышать " + USAGE_MAX_DAYS + " дней");
+        LocalDate from = period == Period.WEEK ? weekStart(dateFrom) : dateFrom;
+        return usageRollupRepo.findAllByScopeAndScopeIdAndPeriodAndPeriodStartBetweenOrderByPeriodStart(scope, scopeId, period, from, dateTo)
+                .stream()
+                .map(rollup -> new UsageDto(rollup.getPeriodStart(), rollup.getBookedMinutes(), rollup.getReservationCount()))
+                .toList();
+    }
+
+    /**
+     * Repairs all rollups from live and archived reservations. History is split into chunks of whole weeks, so every
+     * rollup row belongs to exactly one chunk and chunks are reconciled in parallel, each in its own
+     * transaction. Reconciling is idempotent and keeps concurrent increments, so writers are never held back
+     * and a chunk that fails on a conflict is simply run again.
+     */
+    @Scheduled(cron = "${campus.rollup.rebuild-cron:-}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuild() {
+        Optional<LocalDate> first = Stream.of(reservationRepo.findFirstDateOfReserv(), reservationArchiveRepo.findFirstDateOfReserv(),
+                        usageRollupRepo.findFirstPeriodStart())
+                .flatMap(Optional::stream).min(Comparator.naturalOrder());
+        Optional<LocalDate> last = Stream.of(reservationRepo.findLastDateOfReserv(), reservationArchiveRepo.findLastDateOfReserv(),
+                        usageRollupRepo.findLastPeriodStart())
+                .flatMap(Optional::stream).max(Comparator.naturalOrder());
+        if (first.isEmpty() || last.isEmpty()) return;
+        LocalDate from = weekStart(first.get());
+        LocalDate to = weekStart(last.get()).plusWeeks(1);
+
+        List<LocalDate> chunks = new ArrayList<>();
+        for (LocalDate chunk = from; chunk.isBefore(to); chunk = chunk.plusWeeks(REBUILD_CHUNK_WEEKS)) {
+            chunks.add(chunk);
+        }
+        CompletableFuture.allOf(chunks.stream()
+                .map(chunk -> CompletableFuture.runAsync(() -> rebuildChunk(chunk, min(chunk.plusWeeks(REBUILD_CHUNK_WEEKS), to)), rebuildExecutor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildIfEmpty() {
+        if (usageRollupRepo.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Subtracts rooms of reservations that are about to be deleted.
+     */
+    public void removeUsage(List<RoomUsageRow> rows) {
+        apply(rows, -1);
+    }
+
+    /**
+     * Drops rollups of a room that is about to be deleted and takes its minutes out of the campus rollups.
+     */
+    public void deleteRoomUsage(Long campusId, Long roomId) {
+        usageRollupRepo.subtractRoomFromCampus(campusId, roomId);
+        usageRollupRepo.deleteAllByRoomId(roomId);
+    }
+
+    /**
+     * Drops rollups of a campus and its rooms; must run before the rooms are deleted.
+     */
+    public void deleteCampusUsage(Long campusId) {
+        usageRollupRepo.deleteAllByCampusId(campusId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private static CustomizableThreadFactory rebuildThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rollup-rebuild-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private void rebuildChunk(LocalDate from, LocalDate to) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> usageRollupRepo.reconcileRange(from, to));
+                return;
+            } catch (DataAccessException e) {
+                if (attempt == REBUILD_CHUNK_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    private void apply(List<RoomUsageRow> rows, int sign) {
+        Map<UsageRollup.Key, long[]> usage = new HashMap<>();
+        for (RoomUsageRow row : rows) {
+            long minutes = minutes(row.startTime(), row.endTime());
+            LocalDate week = weekStart(row.dateOfReserv());
+            add(usage, new UsageRollup.Key(Scope.ROOM, row.roomId(), Period.DAY, row.dateOfReserv()), minutes);
+            add(usage, new UsageRollup.Key(Scope.ROOM, row.roomId(), Period.WEEK, week), minutes);
+            add(usage, new UsageRollup.Key(Scope.CAMPUS, row.campusId(), Period.DAY, row.dateOfReserv()), minutes);
+            add(usage, new UsageRollup.Key(Scope.CAMPUS, row.campusId(), Period.WEEK, week), minutes);
+        }
+        usage.forEach((key, total) -> usageRollupRepo.addUsage(key.getScope().name(), key.getScopeId(),
+                key.getPeriod().name(), key.getPeriodStart(), sign * total[0], sign * total[1]));
+    }
+
+    private void add(Map<UsageRollup.Key, long[]> usage, UsageRollup.Key key, long minutes) {
+        long[] total = usage.computeIfAbsent(key, k -> new long[2]);
+        total[0] += minutes;
+        total[1]++;
+    }
+
+    private long minutes(LocalTime startTime, LocalTime endTime) {
+        return Duration.between(startTime, endTime).toMinutes();
+    }
+
+    private LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -1,16 +1,28 @@
 package com.github.vvpanf.campusapi.service;
 
+import com.github.vvpanf.campusapi.dto.MultiGetDto;
 import com.github.vvpanf.campusapi.dto.UserDto;
 import com.github.vvpanf.campusapi.entity.User;
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.RoomUsageRow;
 import com.github.vvpanf.campusapi.repo.UserRepo;
-import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -19,16 +31,39 @@ import org.springframework.stereotype.Service;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class UserService {
     UserRepo userRepo;
+    ReservationRepo reservationRepo;
+    ReservationArchiveRepo reservationArchiveRepo;
+    UsageRollupService usageRollupService;
+    ChangeLogService changeLogService;
     ModelMapper modelMapper;
+    IdBatchLoader idBatchLoader;
+    SparseFieldsQuery sparseFieldsQuery;
+    ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
     public Page<UserDto> getAllUsers(Pageable pageable) {
         return userRepo.findAll(pageable).map(user -> modelMapper.map(user, UserDto.class));
     }
 
+    @Transactional(readOnly = true)
     public Page<UserDto> getUsersByNameMatches(String nameMatches, Pageable pageable) {
         return userRepo.findByFullNameContains(nameMatches, pageable).map(user -> modelMapper.map(user, UserDto.class));
     }
 
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getUsers(String nameMatches, Pageable pageable, List<String> fields) {
+        Specification<User> where = nameMatches == null ? null : (root, query, cb) ->
+                cb.like(root.<String>get("fullName"), "%" + EscapeCharacter.DEFAULT.escape(nameMatches) + "%", EscapeCharacter.DEFAULT.getEscapeCharacter());
+        return sparseFieldsQuery.findPage(User.class, UserDto.class, fields, where, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public MultiGetDto<UserDto> getUsersByIds(List<Long> ids) {
+        return idBatchLoader.load(ids, batch -> userRepo.findAllById(batch).stream()
+                .collect(Collectors.toMap(User::getId, user -> modelMapper.map(user, UserDto.class))));
+    }
+
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         return userRepo.findById(id).map(user -> modelMapper.map(user, UserDto.class)).orElse(null);
     }
@@ -37,4 +72,22 @@ public class UserService {
         User user = userRepo.save(modelMapper.map(userDto, User.class));
         return modelMapper.map(user, UserDto.class);
     }
+
+    /**
+     * Deletes the user with one statement; live reservations go by {@code ON DELETE CASCADE} and are
+     * taken out of the utilization rollups, archived ones are deleted in bulk and stay in the rollups.
+     */
+    public boolean deleteUser(Long id) {
+        if (!userRepo.existsById(id)) return false;
+        List<RoomUsageRow> rooms = reservationRepo.findRoomUsageRowsByUserId(id);
+        usageRollupService.removeUsage(rooms);
+        changeLogService.recordUserReservationsDeleted(id);
+        reservationRepo.deleteRoomLinksByUserId(id);
+        reservationArchiveRepo.deleteRoomLinksByUserId(id);
+        reservationArchiveRepo.deleteInBulkByUserId(id);
+        userRepo.deleteInBulkById(id);
+        rooms.forEach(room -> eventPublisher.publishEvent(new ReservationRoomRemovedEvent(room.campusId(), room.roomId(),
+                room.dateOfReserv(), room.startTime(), room.endTime())));
+        return true;
+    }
 }
@@ -0,0 +1,103 @@
+create table campus (
+    id             bigint generated by default as identity primary key,
+    name           varchar(255),
+    address        varchar(255),
+    parking_spaces integer,
+    version        bigint                   default 0                 not null,
+    updated_at     timestamp(6) with time zone default current_timestamp not null
+);
+
+create table room (
+    id         bigint generated by default as identity primary key,
+    number     varchar(255),
+    type       varchar(255),
+    capacity   integer,
+    campus_id  bigint,
+    version    bigint                   default 0                 not null,
+    updated_at timestamp(6) with time zone default current_timestamp not null,
+    constraint fk_room_campus foreign key (campus_id) references campus (id) on delete cascade
+);
+create index idx_room_campus on room (campus_id);
+
+create table usr (
+    id            bigint generated by default as identity primary key,
+    full_name     varchar(255),
+    date_of_birth date,
+    email         varchar(255)
+);
+
+create table reservation (
+    id             bigint generated by default as identity primary key,
+    date_of_reserv date,
+    start_time     time,
+    end_time       time,
+    comment        varchar(1000),
+    people_count   integer,
+    user_id        bigint,
+    version        bigint                   default 0                 not null,
+    updated_at     timestamp(6) with time zone default current_timestamp not null,
+    constraint fk_reservation_user foreign key (user_id) references usr (id) on delete cascade
+);
+create index idx_reservation_user on reservation (user_id);
+create index idx_reservation_date on reservation (date_of_reserv);
+
+create table room_in_reservation (
+    reservation_id bigint not null,
+    room_id        bigint not null,
+    constraint fk_room_in_reservation_reservation foreign key (reservation_id) references reservation (id) on delete cascade,
+    constraint fk_room_in_reservation_room foreign key (room_id) references room (id)
+);
+create index idx_room_in_reservation_reservation on room_in_reservation (reservation_id);
+create index idx_room_in_reservation_room on room_in_reservation (room_id);
+
+create table reservation_archive (
+    id             bigint primary key,
+    date_of_reserv date,
+    start_time     time,
+    end_time       time,
+    comment        varchar(1000),
+    people_count   integer,
+    user_id        bigint,
+    archived_at    timestamp(6) with time zone
+);
+create index idx_reservation_archive_user on reservation_archive (user_id);
+create index idx_reservation_archive_date on reservation_archive (date_of_reserv);
+
+create table room_in_reservation_archive (
+    reservation_id bigint not null,
+    room_id        bigint not null,
+    primary key (reservation_id, room_id),
+    constraint fk_room_in_reservation_archive_reservation foreign key (reservation_id) references reservation_archive (id)
+);
+create index idx_room_in_reservation_archive_room on room_in_reservation_archive (room_id);
+
+-- Key columns in the order of the report lookups: scope, id, period, then a range of period starts.
+create table usage_rollup (
+    scope_type        varchar(16) not null,
+    scope_id          bigint      not null,
+    period_type       varchar(16) not null,
+    period_start      date        not null,
+    booked_minutes    bigint,
+    reservation_count bigint,
+    primary key (scope_type, scope_id, period_type, period_start)
+);
+create index idx_usage_rollup_period_start on usage_rollup (period_start);
+
+create table idempotency_key (
+    idempotency_key varchar(255) primary key,
+    status          integer,
+    content_type    varchar(255),
+    location        varchar(255),
+    body            blob,
+    expires_at      timestamp(6) with time zone
+);
+create index idx_idempotency_key_expires_at on idempotency_key (expires_at);
+
+create table change_log (
+    seq         bigint generated by default as identity primary key,
+    entity_type varchar(16),
+    entity_id   bigint,
+    operation   varchar(16),
+    changed_at  timestamp(6) with time zone
+);
+create index idx_change_log_entity on change_log (entity_type, entity_id);
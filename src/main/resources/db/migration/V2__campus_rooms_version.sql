@@ -0,0 +1,4 @@
+-- Change counter of the room list of a campus: bumped by every insert or delete of a room, so the
+-- list ETag changes even when a delete and an insert leave count and versions as they were.
+alter table campus add column rooms_version bigint default 0 not null;
+alter table campus add column rooms_changed_at timestamp(6) with time zone default current_timestamp not null;
@@ -0,0 +1,3 @@
+-- SHA-256 of the request body the key was first used with. A row without status is claimed by a request
+-- that is still running; its expires_at is short, so the claim of a node that died runs out.
+alter table idempotency_key add column request_hash varchar(64);
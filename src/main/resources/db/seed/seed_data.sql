@@ -13,10 +13,10 @@ insert into room(number, type, capacity, campus_id) values
 ('101', 'Лекционная', 40, 1),
 ('520-a', 'Лабораторная', 10, 1);
 
-insert into reservation(date_of_reserv, start_time, end_time, comment, user_id) values
-('2024-03-01', '12:00:00', '15:30:00', '', 1),
-('2024-03-01', '11:00:00', '12:00:00', 'Нужно оборудывание', 2),
-('2024-03-02', '18:00:00', '19:00:00', '', 1);
+insert into reservation(date_of_reserv, start_time, end_time, comment, people_count, user_id) values
+('2024-03-01', '12:00:00', '15:30:00', '', 100, 1),
+('2024-03-01', '11:00:00', '12:00:00', 'Нужно оборудывание', 30, 2),
+('2024-03-02', '18:00:00', '19:00:00', '', 12, 1);
 
 insert into room_in_reservation(reservation_id, room_id) values
 (1, 1),
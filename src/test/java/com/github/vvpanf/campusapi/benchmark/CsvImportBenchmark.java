@@ -0,0 +1,69 @@
+package com.github.vvpanf.campusapi.benchmark;
+
+import com.github.vvpanf.campusapi.dto.ImportResultDto;
+import com.github.vvpanf.campusapi.service.CsvImportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Time of importing {@code benchmark.rows} CSV rows (1M by default) of users, rooms and reservations
+ * into the in-memory database. The CSV is generated while it is read, so only the importer holds
+ * memory. Run with {@code mvn test -Pbenchmark -Dtest=CsvImportBenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+class CsvImportBenchmark {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Test
+    void importRows() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        System.out.printf("%-14s %10s %10s %10s %12s%n", "kind", "imported", "failed", "ms", "rows/s");
+        measure("users", () -> csvImportService.importUsers(csv("full_name,date_of_birth,email",
+                row -> "User " + row + ",1990-01-01,user" + row + "@campus.local")));
+        measure("rooms", () -> csvImportService.importRooms(csv("campus_id,number,type,capacity",
+                row -> (row % 2 + 1) + "," + row + ",Лекционная," + (10 + row % 90))));
+        measure("reservations", () -> csvImportService.importReservations(csv("user_id,date_of_reserv,start_time,end_time,comment,people_count",
+                row -> (row % 2 + 1) + "," + tomorrow.plusDays(row % 365) + ",10:00,11:30,," + (1 + row % 50))));
+    }
+
+    private void measure(String kind, Supplier<ImportResultDto> importer) {
+        long start = System.nanoTime();
+        ImportResultDto result = importer.get();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%-14s %10d %10d %10d %12d%n", kind, result.getImported(), result.getFailed(), millis,
+                result.getImported() * 1000 / Math.max(1, millis));
+    }
+
+    private InputStream csv(String header, IntFunction<String> line) {
+        return new InputStream() {
+            private int row = -1;
+            private byte[] bytes = new byte[0];
+            private int position;
+
+            @Override
+            public int read() {
+                if (position == bytes.length) {
+                    if (row >= ROWS) return -1;
+                    row++;
+                    bytes = ((row == 0 ? header : line.apply(row)) + "\n").getBytes(StandardCharsets.UTF_8);
+                    position = 0;
+                }
+                return bytes[position++] & 0xff;
+            }
+        };
+    }
+}
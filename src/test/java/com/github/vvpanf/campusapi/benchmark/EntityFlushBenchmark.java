@@ -0,0 +1,97 @@
+package com.github.vvpanf.campusapi.benchmark;
+
+import com.github.vvpanf.campusapi.entity.Campus;
+import com.github.vvpanf.campusapi.entity.Reservation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Flush time and heap of a persistence context holding one page of {@code benchmark.page-size}
+ * entities (1k by default) with a 1000 character comment or a long address. Each flush follows a
+ * change of one entity, so snapshot dirty checking compares the whole page while inline dirty
+ * tracking looks only at the changed one. Compare an enhanced build with a plain one:
+ * {@code mvn clean test -Pbenchmark -Dtest=EntityFlushBenchmark} and the same with
+ * {@code -Dhibernate.enhance.phase=none}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+class EntityFlushBenchmark {
+    private static final int PAGE_SIZE = Integer.getInteger("benchmark.page-size", 1000);
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void insertRows() {
+        LocalDate date = LocalDate.now().plusDays(1);
+        String comment = "c".repeat(1000);
+        jdbcTemplate.batchUpdate("insert into reservation(date_of_reserv, start_time, end_time, comment, people_count, user_id) values (?, ?, ?, ?, ?, 1)",
+                IntStream.range(0, PAGE_SIZE).mapToObj(i -> new Object[] {Date.valueOf(date.plusDays(i % 365)),
+                        Time.valueOf(LocalTime.of(10, 0)), Time.valueOf(LocalTime.of(11, 30)), comment, 1 + i % 50}).toList());
+        jdbcTemplate.batchUpdate("insert into campus(name, address, parking_spaces) values (?, ?, ?)",
+                IntStream.range(0, PAGE_SIZE).mapToObj(i -> new Object[] {"Campus " + i,
+                        "666605, Ивановская область, город Зарайск, пр. Бухарестская, " + i, i % 200}).toList());
+    }
+
+    @Test
+    void flushPages() {
+        System.out.printf("enhanced: %b, page size %d%n", ManagedEntity.class.isAssignableFrom(Reservation.class), PAGE_SIZE);
+        System.out.printf("%-12s %10s %10s %14s%n", "entity", "load ms", "heap KB", "flush us/op");
+        measure("reservation", "select r from Reservation r order by r.id desc", Reservation.class,
+                (Reservation reservation, Integer i) -> reservation.setPeopleCount(i));
+        measure("campus", "select c from Campus c order by c.id desc", Campus.class,
+                (Campus campus, Integer i) -> campus.setParkingSpaces(i));
+    }
+
+    private <E> void measure(String entity, String query, Class<E> type, BiConsumer<E, Integer> change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            List<E> page = entityManager.createQuery(query, type).setMaxResults(PAGE_SIZE).getResultList();
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+            long heapKb = (usedHeap() - heapBefore) >> 10;
+            for (int i = 0; i < WARMUP; i++) {
+                change.accept(page.get(i % page.size()), i);
+                entityManager.flush();
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                change.accept(page.get(i % page.size()), WARMUP + i);
+                entityManager.flush();
+            }
+            long flushMicros = (System.nanoTime() - start) / ITERATIONS / 1000;
+            System.out.printf("%-12s %10d %10d %14d%n", entity, loadMillis, heapKb, flushMicros);
+            status.setRollbackOnly();
+        });
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
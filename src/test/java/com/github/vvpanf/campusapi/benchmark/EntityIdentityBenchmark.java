@@ -0,0 +1,87 @@
+package com.github.vvpanf.campusapi.benchmark;
+
+import com.github.vvpanf.campusapi.entity.Reservation;
+import com.github.vvpanf.campusapi.entity.Room;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * Cost of one {@code contains} on collections of rooms and reservations of growing size: id based
+ * entities in a hash set against the former value equality over all columns, in a hash set and in the
+ * list that {@code Reservation.rooms} used to be. The value variants use records with the columns the
+ * old Lombok {@code equals}/{@code hashCode} compared. Entities hash only their id, so a lookup costs
+ * one {@code Long} hash and one id comparison whatever the size of the set, where the value variants
+ * hash and compare every column. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class EntityIdentityBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final String COMMENT = "c".repeat(1000);
+
+    @Test
+    void containsLookups() {
+        System.out.printf("%-6s %-12s %-18s %12s%n", "count", "entity", "collection", "ns/op");
+        for (int count : new int[] {10, 1000, 100_000}) {
+            measure(count, "room", "id hash set", EntityIdentityBenchmark::room, LinkedHashSet::new);
+            measure(count, "room", "value hash set", id -> RoomValue.of(room(id)), LinkedHashSet::new);
+            measure(count, "room", "value list", id -> RoomValue.of(room(id)), ArrayList::new);
+            measure(count, "reservation", "id hash set", EntityIdentityBenchmark::reservation, HashSet::new);
+            measure(count, "reservation", "value hash set", id -> ReservationValue.of(reservation(id)), HashSet::new);
+        }
+    }
+
+    private <T> void measure(int count, String entity, String collection, LongFunction<T> create,
+                             Function<List<T>, Collection<T>> collect) {
+        List<T> values = LongStream.rangeClosed(1, count).mapToObj(create).toList();
+        Collection<T> elements = collect.apply(values);
+        // fresh instances, as a lookup gets them from another query
+        List<T> probes = LongStream.rangeClosed(1, Math.min(count, 1000)).mapToObj(create).toList();
+        int found = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            if (elements.contains(probes.get(i % probes.size()))) found++;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (elements.contains(probes.get(i % probes.size()))) found++;
+        }
+        long nanos = (System.nanoTime() - start) / ITERATIONS;
+        if (found != WARMUP + ITERATIONS) throw new IllegalStateException("Not all probes found in " + collection);
+        System.out.printf("%-6d %-12s %-18s %12d%n", count, entity, collection, nanos);
+    }
+
+    private static Room room(long id) {
+        return new Room(id, "Room " + id, "Лабораторная", (int) (id % 200), null);
+    }
+
+    private static Reservation reservation(long id) {
+        return new Reservation(id, DATE.plusDays(id % 365), LocalTime.of(10, 0), LocalTime.of(11, 30),
+                COMMENT + id, (int) (id % 50), null);
+    }
+
+    private record RoomValue(Long id, String number, String type, Integer capacity) {
+        static RoomValue of(Room room) {
+            return new RoomValue(room.getId(), room.getNumber(), room.getType(), room.getCapacity());
+        }
+    }
+
+    private record ReservationValue(Long id, LocalDate dateOfReserv, LocalTime startTime, LocalTime endTime,
+                                    String comment, Integer peopleCount) {
+        static ReservationValue of(Reservation reservation) {
+            return new ReservationValue(reservation.getId(), reservation.getDateOfReserv(), reservation.getStartTime(),
+                    reservation.getEndTime(), reservation.getComment(), reservation.getPeopleCount());
+        }
+    }
+}
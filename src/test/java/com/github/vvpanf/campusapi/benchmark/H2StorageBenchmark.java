@@ -0,0 +1,177 @@
+package com.github.vvpanf.campusapi.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Heap versus disk of the in-memory database and the {@code h2file} profile: loads the schema
+ * migrations and {@code benchmark.reservations} reservations (1M by default) into each, then prints
+ * heap retained after a GC, size of the database files, load time, and cold (first after opening
+ * the database) and warm (average of repeated) times of typical reads. The file is reopened before
+ * the cold reads, so the H2 page cache is empty, but the OS file cache is not dropped.
+ * Run with {@code mvn test -Pbenchmark -Dtest=H2StorageBenchmark -DargLine=-Xmx2g}.
+ */
+@Tag("benchmark")
+class H2StorageBenchmark {
+    private static final int RESERVATIONS = Integer.getInteger("benchmark.reservations", 1_000_000);
+    private static final int CACHE_SIZE_KB = Integer.getInteger("benchmark.cache-size-kb", 65536);
+    private static final int USERS = 10_000;
+    private static final int CAMPUSES = 10;
+    private static final int ROOMS_PER_CAMPUS = 50;
+    private static final int DAYS = 730;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int WARM_ITERATIONS = 20;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareMemAndFile() throws SQLException, IOException {
+        System.out.printf("%d reservations, file cache %d KB%n", RESERVATIONS, CACHE_SIZE_KB);
+        System.out.printf("%-5s %10s %10s %10s %-16s %10s %10s%n", "mode", "load ms", "heap MB", "disk MB", "query", "cold ms", "warm ms");
+        measure("mem", "jdbc:h2:mem:storage-benchmark;DB_CLOSE_DELAY=-1");
+        measure("file", "jdbc:h2:file:" + dir.resolve("campusdb") + ";CACHE_SIZE=" + CACHE_SIZE_KB);
+    }
+
+    private void measure(String mode, String url) throws SQLException, IOException {
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        Flyway.configure().dataSource(url, "sa", "sa").load().migrate();
+        String prefix;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "sa")) {
+            load(connection);
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+            prefix = String.format("%-5s %10d %10d %10d", mode, loadMillis, (usedHeap() - heapBefore) >> 20, diskSize() >> 20);
+            if (mode.equals("file")) execute(connection, "SHUTDOWN");
+        }
+        try (Connection connection = DriverManager.getConnection(url, "sa", "sa")) {
+            read(connection, prefix, "by date", "select id, start_time, end_time from reservation where date_of_reserv = ?",
+                    random -> Date.valueOf(FIRST_DAY.plusDays(random.nextInt(DAYS))));
+            read(connection, "", "by user page", "select id, date_of_reserv from reservation where user_id = ? " +
+                            "order by date_of_reserv, start_time limit 10",
+                    random -> (long) random.nextInt(USERS) + 1);
+            read(connection, "", "rooms of date", "select rr.room_id from reservation r join room_in_reservation rr " +
+                            "on rr.reservation_id = r.id where r.date_of_reserv = ?",
+                    random -> Date.valueOf(FIRST_DAY.plusDays(random.nextInt(DAYS))));
+            read(connection, "", "scan all", "select count(*) from reservation where people_count > ?",
+                    random -> 0);
+            execute(connection, "SHUTDOWN");
+        }
+    }
+
+    private void load(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        Random random = new Random(42);
+        try (PreparedStatement users = connection.prepareStatement("insert into usr(full_name, date_of_birth, email) values (?, ?, ?)");
+             PreparedStatement campuses = connection.prepareStatement("insert into campus(name, address, parking_spaces) values (?, ?, ?)");
+             PreparedStatement rooms = connection.prepareStatement("insert into room(number, type, capacity, campus_id) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= USERS; i++) {
+                users.setString(1, "User " + i);
+                users.setDate(2, Date.valueOf(LocalDate.of(1990, 1, 1).plusDays(i % 5000)));
+                users.setString(3, "user" + i + "@campus.local");
+                users.addBatch();
+            }
+            users.executeBatch();
+            for (int c = 1; c <= CAMPUSES; c++) {
+                campuses.setString(1, "Campus " + c);
+                campuses.setString(2, "Address " + c);
+                campuses.setInt(3, 100);
+                campuses.addBatch();
+                for (int r = 1; r <= ROOMS_PER_CAMPUS; r++) {
+                    rooms.setString(1, String.valueOf(100 + r));
+                    rooms.setString(2, r % 2 == 0 ? "Лекционная" : "Лабораторная");
+                    rooms.setInt(3, 10 + random.nextInt(90));
+                    rooms.setLong(4, c);
+                    rooms.addBatch();
+                }
+            }
+            campuses.executeBatch();
+            rooms.executeBatch();
+        }
+        try (PreparedStatement reservations = connection.prepareStatement(
+                "insert into reservation(id, date_of_reserv, start_time, end_time, comment, people_count, user_id) values (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement links = connection.prepareStatement("insert into room_in_reservation(reservation_id, room_id) values (?, ?)")) {
+            for (long id = 1; id <= RESERVATIONS; id++) {
+                LocalTime startTime = LocalTime.of(8 + random.nextInt(10), 0);
+                reservations.setLong(1, id);
+                reservations.setDate(2, Date.valueOf(FIRST_DAY.plusDays(random.nextInt(DAYS))));
+                reservations.setTime(3, Time.valueOf(startTime));
+                reservations.setTime(4, Time.valueOf(startTime.plusHours(1 + random.nextInt(2))));
+                reservations.setString(5, "");
+                reservations.setInt(6, 1 + random.nextInt(100));
+                reservations.setLong(7, 1 + random.nextInt(USERS));
+                reservations.addBatch();
+                links.setLong(1, id);
+                links.setLong(2, 1 + random.nextInt(CAMPUSES * ROOMS_PER_CAMPUS));
+                links.addBatch();
+                if (id % BATCH_SIZE == 0 || id == RESERVATIONS) {
+                    reservations.executeBatch();
+                    links.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+    private void read(Connection connection, String prefix, String name, String sql,
+                      Function<Random, Object> parameter) throws SQLException {
+        Random random = new Random(7);
+        long cold = time(connection, sql, parameter.apply(random));
+        long warm = 0;
+        for (int i = 0; i < WARM_ITERATIONS; i++) {
+            warm += time(connection, sql, parameter.apply(random));
+        }
+        System.out.printf("%-38s %-16s %10.2f %10.2f%n", prefix, name, cold / 1e6, warm / 1e6 / WARM_ITERATIONS);
+    }
+
+    private long time(Connection connection, String sql, Object parameter) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, parameter);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getObject(1);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private long diskSize() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
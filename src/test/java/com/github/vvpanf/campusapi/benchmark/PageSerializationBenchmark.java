@@ -0,0 +1,72 @@
+package com.github.vvpanf.campusapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.github.vvpanf.campusapi.dto.CampusDto;
+import com.github.vvpanf.campusapi.dto.PageDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time and bytes on the wire of one page of campuses: Spring {@code PageImpl}
+ * envelope vs {@link PageDto} as JSON and CBOR, each raw and gzipped.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PageSerializationBenchmark {
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    @Test
+    void serializePages() throws IOException {
+        System.out.printf("%-6s %-16s %12s %12s %12s%n", "count", "format", "bytes", "gzip bytes", "us/op");
+        for (int count : new int[] {10, 100, 1000}) {
+            Page<CampusDto> page = page(count);
+            PageDto<CampusDto> pageDto = PageDto.of(page);
+            measure(count, "PageImpl json", jsonMapper, page);
+            measure(count, "PageDto json", jsonMapper, pageDto);
+            measure(count, "PageDto cbor", cborMapper, pageDto);
+        }
+    }
+
+    private void measure(int count, String format, ObjectMapper mapper, Object value) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long start = System.nanoTime();
+        byte[] bytes = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(value);
+        }
+        long micros = (System.nanoTime() - start) / ITERATIONS / 1000;
+        System.out.printf("%-6d %-16s %12d %12d %12d%n", count, format, bytes.length, gzip(bytes).length, micros);
+    }
+
+    private byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private Page<CampusDto> page(int count) {
+        List<CampusDto> content = LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new CampusDto(id, "Campus " + id,
+                        "666605, Ивановская область, город Зарайск, пр. Бухарестская, " + id, (int) id % 200))
+                .toList();
+        return new PageImpl<>(content, PageRequest.of(0, count), count * 10L);
+    }
+}
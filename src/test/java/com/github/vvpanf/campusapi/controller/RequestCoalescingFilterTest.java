@@ -0,0 +1,261 @@
+package com.github.vvpanf.campusapi.controller;
+
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescingFilterTest {
+    private static final String CONTEXT_PATH = "/api/v1";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch firstEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseFirst = new CountDownLatch(1);
+
+    @Test
+    public void handleDoFilter_IdenticalConcurrentRequests_RunChainOnceAndShareResponse() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ZERO, 100);
+        FilterChain chain = blockingChain(call -> 200);
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        Thread first = start(filter, "/campuses/1/rooms", firstResponse, chain);
+        firstEntered.await(5, TimeUnit.SECONDS);
+        Thread second = start(filter, "/campuses/1/rooms", secondResponse, chain);
+        awaitWaiting(second);
+        // when
+        releaseFirst.countDown();
+        first.join(5000);
+        second.join(5000);
+        // then
+        assertEquals(1, calls.get());
+        assertEquals(200, secondResponse.getStatus());
+        assertEquals("{\"call\":1}", secondResponse.getContentAsString());
+        assertEquals("application/json", secondResponse.getContentType());
+        assertEquals("true", secondResponse.getHeader(RequestCoalescingFilter.COALESCED));
+        assertNull(firstResponse.getHeader(RequestCoalescingFilter.COALESCED));
+        assertEquals(0, filter.getEntryCount());
+    }
+
+    @Test
+    public void handleDoFilter_FirstRequestNotOk_WaitingRequestRunsOnItsOwn() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ZERO, 100);
+        FilterChain chain = blockingChain(call -> call == 1 ? 404 : 200);
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        Thread first = start(filter, "/campuses/1/rooms", firstResponse, chain);
+        firstEntered.await(5, TimeUnit.SECONDS);
+        Thread second = start(filter, "/campuses/1/rooms", secondResponse, chain);
+        awaitWaiting(second);
+        // when
+        releaseFirst.countDown();
+        first.join(5000);
+        second.join(5000);
+        // then
+        assertEquals(2, calls.get());
+        assertEquals(404, firstResponse.getStatus());
+        assertEquals(200, secondResponse.getStatus());
+        assertEquals("{\"call\":2}", secondResponse.getContentAsString());
+        assertNull(secondResponse.getHeader(RequestCoalescingFilter.COALESCED));
+    }
+
+    @Test
+    public void handleDoFilter_FirstRequestSlowerThanWaitTimeout_WaitingRequestRunsOnItsOwn() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofMillis(100), Duration.ZERO, 100);
+        FilterChain chain = blockingChain(call -> 200);
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        Thread first = start(filter, "/campuses/1/rooms", firstResponse, chain);
+        firstEntered.await(5, TimeUnit.SECONDS);
+        // when
+        filter.doFilter(request("/campuses/1/rooms"), secondResponse, chain);
+        boolean firstStillRunning = first.isAlive();
+        releaseFirst.countDown();
+        first.join(5000);
+        // then
+        assertTrue(firstStillRunning);
+        assertEquals(2, calls.get());
+        assertEquals("{\"call\":2}", secondResponse.getContentAsString());
+        assertNull(secondResponse.getHeader(RequestCoalescingFilter.COALESCED));
+        assertEquals("{\"call\":1}", firstResponse.getContentAsString());
+    }
+
+    @Test
+    public void handleDoFilter_DifferentAccept_RunChainForEach() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ofSeconds(10), 100);
+        FilterChain chain = chain(call -> 200);
+        MockHttpServletRequest cbor = request("/campuses/1/rooms");
+        cbor.addHeader("Accept", "application/cbor");
+        // when
+        filter.doFilter(request("/campuses/1/rooms"), new MockHttpServletResponse(), chain);
+        filter.doFilter(cbor, new MockHttpServletResponse(), chain);
+        // then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void handleDoFilter_MicroCache_ServeUntilExpired() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ofMillis(200), 100);
+        FilterChain chain = chain(call -> 200);
+        MockHttpServletResponse cached = new MockHttpServletResponse();
+        MockHttpServletResponse expired = new MockHttpServletResponse();
+        // when
+        filter.doFilter(request("/campuses/1/rooms"), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("/campuses/1/rooms"), cached, chain);
+        Thread.sleep(250);
+        filter.doFilter(request("/campuses/1/rooms"), expired, chain);
+        // then
+        assertEquals(2, calls.get());
+        assertEquals("true", cached.getHeader(RequestCoalescingFilter.COALESCED));
+        assertEquals("{\"call\":1}", cached.getContentAsString());
+        assertNull(expired.getHeader(RequestCoalescingFilter.COALESCED));
+        assertEquals("{\"call\":2}", expired.getContentAsString());
+    }
+
+    @Test
+    public void handleDoFilter_SharedResponse_ReplayOnlyRepresentationHeaders() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ofSeconds(10), 100);
+        FilterChain chain = (request, response) -> {
+            HttpServletResponse servletResponse = (HttpServletResponse) response;
+            servletResponse.setHeader("ETag", "\"rooms-1\"");
+            servletResponse.setHeader("Cache-Control", "max-age=60");
+            servletResponse.addHeader("Vary", "Accept");
+            servletResponse.setHeader("Set-Cookie", "session=first");
+            servletResponse.setHeader("RateLimit-Remaining", "9");
+            write(servletResponse, 200, calls.incrementAndGet());
+        };
+        MockHttpServletResponse cached = new MockHttpServletResponse();
+        // when
+        filter.doFilter(request("/campuses/1/rooms"), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("/campuses/1/rooms"), cached, chain);
+        // then
+        assertEquals(1, calls.get());
+        assertEquals("\"rooms-1\"", cached.getHeader("ETag"));
+        assertEquals("max-age=60", cached.getHeader("Cache-Control"));
+        assertEquals("Accept", cached.getHeader("Vary"));
+        assertNull(cached.getHeader("Set-Cookie"));
+        assertNull(cached.getHeader("RateLimit-Remaining"));
+    }
+
+    @Test
+    public void handleDoFilter_MicroCacheOverMaxEntries_EvictExpiredEntries() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ofMillis(50), 1);
+        FilterChain chain = chain(call -> 200);
+        filter.doFilter(request("/campuses/1/rooms"), new MockHttpServletResponse(), chain);
+        Thread.sleep(100);
+        // when
+        filter.doFilter(request("/campuses/2/rooms"), new MockHttpServletResponse(), chain);
+        // then
+        assertEquals(1, filter.getEntryCount());
+    }
+
+    @Test
+    public void handleOnReservationRoomRemoved_MicroCachedCampus_EvictOnlyThatCampus() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ofSeconds(10), 100);
+        FilterChain chain = chain(call -> 200);
+        MockHttpServletResponse afterEviction = new MockHttpServletResponse();
+        MockHttpServletResponse otherCampus = new MockHttpServletResponse();
+        filter.doFilter(request("/campuses/1/rooms"), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("/campuses/12/rooms"), new MockHttpServletResponse(), chain);
+        // when
+        filter.onReservationRoomRemoved(new ReservationRoomRemovedEvent(1l, 3l, LocalDate.of(2024, 3, 1), LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        filter.doFilter(request("/campuses/1/rooms"), afterEviction, chain);
+        filter.doFilter(request("/campuses/12/rooms"), otherCampus, chain);
+        // then
+        assertEquals(3, calls.get());
+        assertNull(afterEviction.getHeader(RequestCoalescingFilter.COALESCED));
+        assertEquals("true", otherCampus.getHeader(RequestCoalescingFilter.COALESCED));
+    }
+
+    @Test
+    public void handleDoFilter_NotRoomList_PassThrough() throws Exception {
+        // given
+        RequestCoalescingFilter filter = new RequestCoalescingFilter(true, Duration.ofSeconds(5), Duration.ofSeconds(10), 100);
+        FilterChain chain = chain(call -> 200);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        // when
+        filter.doFilter(request("/campuses/1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("/campuses/1"), second, chain);
+        // then
+        assertEquals(2, calls.get());
+        assertNull(second.getHeader(RequestCoalescingFilter.COALESCED));
+        assertEquals(0, filter.getEntryCount());
+    }
+
+    private FilterChain chain(IntUnaryOperator status) {
+        return (request, response) -> {
+            int call = calls.incrementAndGet();
+            write((HttpServletResponse) response, status.applyAsInt(call), call);
+        };
+    }
+
+    /**
+     * Holds the first call until {@code releaseFirst} is counted down; later calls answer at once.
+     */
+    private FilterChain blockingChain(IntUnaryOperator status) {
+        return (request, response) -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                firstEntered.countDown();
+                try {
+                    releaseFirst.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            write((HttpServletResponse) response, status.applyAsInt(call), call);
+        };
+    }
+
+    private void write(HttpServletResponse response, int status, int call) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.getOutputStream().write(("{\"call\":" + call + "}").getBytes());
+    }
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", CONTEXT_PATH + path);
+        request.setContextPath(CONTEXT_PATH);
+        return request;
+    }
+
+    private Thread start(RequestCoalescingFilter filter, String path, MockHttpServletResponse response, FilterChain chain) {
+        Thread thread = new Thread(() -> {
+            try {
+                filter.doFilter(request(path), response, chain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING && thread.getState() != Thread.State.WAITING) {
+            if (System.nanoTime() > deadline) fail("Request did not start waiting");
+            Thread.sleep(5);
+        }
+    }
+}
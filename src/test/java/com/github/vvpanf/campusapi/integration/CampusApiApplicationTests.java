@@ -1,29 +1,56 @@
 package com.github.vvpanf.campusapi.integration;
 
+import com.github.vvpanf.campusapi.service.ReservationArchiveService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @TestPropertySource("classpath:application-test.yml")
+@ActiveProfiles("dev")
 @AutoConfigureMockMvc
-@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class CampusApiApplicationTests {
+	private static final String CONTEXT_PATH = "/api/v1";
+
 	@Autowired
 	private MockMvc mockMvc;
+	@Autowired
+	private ReservationArchiveService reservationArchiveService;
 
 	private String apiV1(String url) {
-		return "/api/v1/" + url;
+		return CONTEXT_PATH + url;
+	}
+
+	/**
+	 * MockMvc does not apply {@code server.servlet.context-path}, so requests get it by default.
+	 */
+	@TestConfiguration
+	static class ContextPathConfig {
+		@Bean
+		MockMvcBuilderCustomizer contextPath() {
+			return builder -> builder.defaultRequest(get("/").contextPath(CONTEXT_PATH));
+		}
 	}
 
 	@Test
@@ -32,7 +59,24 @@ class CampusApiApplicationTests {
 			.perform(get(apiV1("/campuses")))
 			.andDo(print())
 			.andExpect(status().isOk())
-			.andExpect(content().json("{\"content\":[{\"id\":1,\"name\":\"POSIX\",\"address\":\"666605, Ивановская область, город Зарайск, пр. Бухарестская, 78\",\"parkingSpaces\":100},{\"id\":2,\"name\":\"INTEX\",\"address\":\"385509, Кировская область, город Люберцы, проезд Космонавтов, 12\",\"parkingSpaces\":50}],\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"offset\":0,\"unpaged\":false,\"paged\":true},\"last\":true,\"totalElements\":2,\"totalPages\":1,\"size\":10,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"first\":true,\"numberOfElements\":2,\"empty\":false}"));
+			.andExpect(content().json("{\"content\":[{\"id\":1,\"name\":\"POSIX\",\"address\":\"666605, Ивановская область, город Зарайск, пр. Бухарестская, 78\",\"parkingSpaces\":100},{\"id\":2,\"name\":\"INTEX\",\"address\":\"385509, Кировская область, город Люберцы, проезд Космонавтов, 12\",\"parkingSpaces\":50}],\"number\":0,\"size\":10,\"totalElements\":2,\"totalPages\":1}"));
+	}
+
+	@Test
+	void handleCampuses_GetRequest_ReturnCompactPageEnvelope() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses")))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.pageable").doesNotExist())
+			.andExpect(jsonPath("$.sort").doesNotExist());
+	}
+
+	@Test
+	void handleCampuses_GetRequestAcceptCbor_ReturnCampusesInCbor() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses")).accept("application/cbor"))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType("application/cbor"));
 	}
 
 	@Test
@@ -41,7 +85,55 @@ class CampusApiApplicationTests {
 				.perform(get(apiV1("/campuses")).param("page", "1").param("count", "1"))
 				.andDo(print())
 				.andExpect(status().isOk())
-				.andExpect(content().json("{\"content\":[{\"id\":2,\"name\":\"INTEX\",\"address\":\"385509, Кировская область, город Люберцы, проезд Космонавтов, 12\",\"parkingSpaces\":50}],\"pageable\":{\"pageNumber\":1,\"pageSize\":1,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"offset\":1,\"paged\":true,\"unpaged\":false},\"last\":true,\"totalElements\":2,\"totalPages\":2,\"first\":false,\"size\":1,\"number\":1,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"numberOfElements\":1,\"empty\":false}"));
+				.andExpect(content().json("{\"content\":[{\"id\":2,\"name\":\"INTEX\",\"address\":\"385509, Кировская область, город Люберцы, проезд Космонавтов, 12\",\"parkingSpaces\":50}],\"number\":1,\"size\":1,\"totalElements\":2,\"totalPages\":2}"));
+	}
+
+	@Test
+	void handleCampuses_GetRequestWithHugeCount_ReturnPageOfMaxCount() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses")).param("count", "1000000"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.size").value(100));
+	}
+
+	@Test
+	void handleCampuses_GetRequestWithNegativePage_ReturnBadRequest() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses")).param("page", "-1"))
+			.andDo(print())
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void handleCampuses_GetRequestWithFields_ReturnOnlyRequestedFields() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses")).param("fields", "name"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content[*].name").value(contains("POSIX", "INTEX")))
+			.andExpect(jsonPath("$.content[0].id").value(1))
+			.andExpect(jsonPath("$.content[0].address").doesNotExist())
+			.andExpect(jsonPath("$.content[0].parkingSpaces").doesNotExist())
+			.andExpect(jsonPath("$.totalElements").value(2));
+	}
+
+	@Test
+	void handleCampuses_GetRequestWithUnknownField_ReturnBadRequest() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses")).param("fields", "name,rooms"))
+			.andDo(print())
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void handleRooms_GetFilteredRoomsAfterLastPage_ReturnEmptyPage() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")).param("minNumberOfSeats", "15").param("page", "10"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content").isEmpty())
+			.andExpect(jsonPath("$.totalElements").value(2));
 	}
 
 	@Test
@@ -61,6 +153,86 @@ class CampusApiApplicationTests {
 			.andExpect(content().json("{\"id\":1,\"name\":\"POSIX\",\"address\":\"666605, Ивановская область, город Зарайск, пр. Бухарестская, 78\",\"parkingSpaces\":100}"));
 	}
 
+	@Test
+	void handleCampuses_GetByIdWithMatchingETag_ReturnNotModified() throws Exception {
+		String etag = mockMvc
+			.perform(get(apiV1("/campuses/1")))
+			.andExpect(status().isOk())
+			.andExpect(header().exists("ETag"))
+			.andExpect(header().string("Cache-Control", "max-age=5, must-revalidate"))
+			.andReturn().getResponse().getHeader("ETag");
+		mockMvc
+			.perform(get(apiV1("/campuses/1")).header("If-None-Match", etag))
+			.andDo(print())
+			.andExpect(status().isNotModified())
+			.andExpect(header().string("ETag", etag))
+			.andExpect(content().string(""));
+	}
+
+	@Test
+	void handleCampuses_GetByIdWithJsonETagAcceptCbor_ReturnCborWithOwnETag() throws Exception {
+		String etag = mockMvc
+			.perform(get(apiV1("/campuses/1")))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader("ETag");
+		mockMvc
+			.perform(get(apiV1("/campuses/1")).accept("application/cbor").header("If-None-Match", etag))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().contentType("application/cbor"))
+			.andExpect(header().string("ETag", not(etag)));
+	}
+
+	@Test
+	void handleRooms_AddNewRoom_ChangeRoomsETag() throws Exception {
+		String etag = mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader("ETag");
+		mockMvc
+			.perform(post(apiV1("/campuses/1/rooms"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+				{
+					"number": "505",
+					"type": "Лабораторная",
+					"capacity": 30
+				}
+				"""))
+			.andExpect(status().isCreated());
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")).header("If-None-Match", etag))
+			.andDo(print())
+			.andExpect(status().isOk());
+	}
+
+	@Test
+	void handleRooms_DeleteRoomAndAddRoom_ChangeRoomsETag() throws Exception {
+		String etag = mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")))
+			.andExpect(status().isOk())
+			.andExpect(header().string("Vary", containsString("Accept")))
+			.andReturn().getResponse().getHeader("ETag");
+		mockMvc
+			.perform(delete(apiV1("/campuses/1/rooms/5")))
+			.andExpect(status().isNoContent());
+		mockMvc
+			.perform(post(apiV1("/campuses/1/rooms"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+				{
+					"number": "520-a",
+					"type": "Лабораторная",
+					"capacity": 30
+				}
+				"""))
+			.andExpect(status().isCreated());
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")).header("If-None-Match", etag))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").value(3));
+	}
+
 	@Test
 	void handleCampuses_GetByName_ReturnCampusNamedPosixInJson() throws Exception {
 		mockMvc
@@ -114,7 +286,7 @@ class CampusApiApplicationTests {
 					"{\"id\":1,\"number\":\"101\",\"type\":\"Лабораторная\",\"capacity\":15}," +
 					"{\"id\":4,\"number\":\"101\",\"type\":\"Лекционная\",\"capacity\":40}," +
 					"{\"id\":5,\"number\":\"520-a\",\"type\":\"Лабораторная\",\"capacity\":10}]," +
-					"\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"offset\":0,\"unpaged\":false,\"paged\":true},\"last\":true,\"totalElements\":3,\"totalPages\":1,\"first\":true,\"size\":10,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"numberOfElements\":3,\"empty\":false}"));
+					"\"number\":0,\"size\":10,\"totalElements\":3,\"totalPages\":1}"));
 	}
 
 	@Test
@@ -126,7 +298,7 @@ class CampusApiApplicationTests {
 			.andExpect(content().json("{\"content\":[" +
 					"{\"id\":1,\"number\":\"101\",\"type\":\"Лабораторная\",\"capacity\":15}," +
 					"{\"id\":4,\"number\":\"101\",\"type\":\"Лекционная\",\"capacity\":40}]," +
-					"\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"offset\":0,\"unpaged\":false,\"paged\":true},\"last\":true,\"totalElements\":2,\"totalPages\":1,\"first\":true,\"size\":10,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"numberOfElements\":2,\"empty\":false}"));
+					"\"number\":0,\"size\":10,\"totalElements\":2,\"totalPages\":1}"));
 	}
 
 	@Test
@@ -169,7 +341,7 @@ class CampusApiApplicationTests {
 			.perform(get(apiV1("/campuses/1/rooms/0/reservations")))
 			.andDo(print())
 			.andExpect(status().isOk())
-			.andExpect(content().json("{\"content\":[],\"pageable\":\"INSTANCE\",\"totalElements\":0,\"totalPages\":1,\"last\":true,\"size\":0,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"numberOfElements\":0,\"first\":true,\"empty\":true}"));
+			.andExpect(content().json("{\"content\":[],\"number\":0,\"size\":0,\"totalElements\":0,\"totalPages\":1}"));
 	}
 
 	@Test
@@ -181,7 +353,58 @@ class CampusApiApplicationTests {
 			.andExpect(content().json("{\"content\":[" +
 				"{\"id\":1,\"dateOfReserv\":\"2024-03-01\",\"startTime\":\"12:00:00\",\"endTime\":\"15:30:00\",\"comment\":\"\"}," +
 				"{\"id\":3,\"dateOfReserv\":\"2024-03-02\",\"startTime\":\"18:00:00\",\"endTime\":\"19:00:00\",\"comment\":\"\"}]," +
-				"\"pageable\":\"INSTANCE\",\"last\":true,\"totalPages\":1,\"totalElements\":2,\"first\":true,\"size\":2,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"numberOfElements\":2,\"empty\":false}"));
+				"\"number\":0,\"size\":2,\"totalElements\":2,\"totalPages\":1}"));
+	}
+
+	@Test
+	void handleRooms_GetCampusTimetable_ReturnRoomsWithReservationsInJson() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/timetable")).param("dateFrom", "2024-03-01").param("dateTo", "2024-03-07"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("[" +
+				"{\"id\":1,\"number\":\"101\",\"reservations\":[" +
+					"{\"id\":1,\"dateOfReserv\":\"2024-03-01\",\"startTime\":\"12:00:00\",\"endTime\":\"15:30:00\"}," +
+					"{\"id\":3,\"dateOfReserv\":\"2024-03-02\",\"startTime\":\"18:00:00\",\"endTime\":\"19:00:00\"}]}," +
+				"{\"id\":4,\"number\":\"101\",\"reservations\":[{\"id\":2}]}," +
+				"{\"id\":5,\"number\":\"520-a\",\"reservations\":[]}]"));
+	}
+
+	@Test
+	void handleRooms_MatchRoomsForBigGroup_ReturnFewestFreeRoomsInJson() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms/match"))
+				.param("reservationDate", "2024-03-01")
+				.param("startTime", "12:00")
+				.param("endTime", "13:00")
+				.param("peopleCount", "45"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{\"id\":4,\"capacity\":40},{\"id\":5,\"capacity\":10}]"));
+	}
+
+	@Test
+	void handleRooms_GetAvailabilityMatrix_ReturnFreeDatesOfEachRoomInJson() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms/availability-matrix"))
+				.param("dateFrom", "2024-03-01").param("dateTo", "2024-03-02")
+				.param("startTime", "11:00").param("endTime", "13:00"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.roomIds").value(contains(1, 4, 5)))
+			.andExpect(jsonPath("$.free").value(contains("01", "01", "11")))
+			.andExpect(jsonPath("$.missing").isEmpty());
+	}
+
+	@Test
+	void handleRooms_SearchRoomsByType_ReturnRoomsWithFacetCountsInJson() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms/search")).param("type", "Лабораторная"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"rooms\":{\"content\":[{\"id\":1},{\"id\":5}],\"totalElements\":2}," +
+				"\"typeCounts\":{\"Лабораторная\":2,\"Лекционная\":1}," +
+				"\"capacityCounts\":{\"0-19\":2,\"20-49\":0,\"50-99\":0,\"100+\":0}}"));
 	}
 
 	@Test
@@ -193,7 +416,7 @@ class CampusApiApplicationTests {
 			.andExpect(content().json("{\"content\":[" +
 				  "{\"id\":1,\"fullName\":\"USER 1\",\"dateOfBirth\":\"2000-01-01\",\"email\":\"user@user.u\"}," +
 				  "{\"id\":2,\"fullName\":\"USER 2\",\"dateOfBirth\":\"1990-12-01\",\"email\":\"qwe@user.u\"}]," +
-				  "\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"offset\":0,\"unpaged\":false,\"paged\":true},\"last\":true,\"totalElements\":2,\"totalPages\":1,\"size\":10,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"first\":true,\"numberOfElements\":2,\"empty\":false}"));
+				  "\"number\":0,\"size\":10,\"totalElements\":2,\"totalPages\":1}"));
 	}
 
 	@Test
@@ -204,7 +427,55 @@ class CampusApiApplicationTests {
 			.andExpect(status().isOk())
 			.andExpect(content().json("{\"content\":[" +
 				  "{\"id\":1,\"fullName\":\"USER 1\",\"dateOfBirth\":\"2000-01-01\",\"email\":\"user@user.u\"}]," +
-				  "\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"offset\":0,\"unpaged\":false,\"paged\":true},\"last\":true,\"totalElements\":1,\"totalPages\":1,\"size\":10,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"first\":true,\"numberOfElements\":1,\"empty\":false}"));
+				  "\"number\":0,\"size\":10,\"totalElements\":1,\"totalPages\":1}"));
+	}
+
+	@Test
+	void handleUsers_GetUsersByIds_ReturnFoundInRequestOrderAndMissing() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/users")).param("ids", "2,9,1"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content[*].id").value(contains(2, 1)))
+			.andExpect(jsonPath("$.missing").value(contains(9)));
+	}
+
+	@Test
+	void handleRooms_GetRoomsByIds_ReturnOnlyRoomsOfCampusInRequestOrder() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")).param("ids", "5,1,3"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content[*].id").value(contains(5, 1)))
+			.andExpect(jsonPath("$.missing").value(contains(3)));
+	}
+
+	@Test
+	void handleRooms_GetRoomsByIdsWithEmptyId_ReturnBadRequest() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")).param("ids", "1,,2"))
+			.andDo(print())
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void handleRooms_GetAvailabilityMatrixOfUnknownCampus_ReturnNotFound() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/999/rooms/availability-matrix"))
+				.param("dateFrom", "2024-03-01").param("dateTo", "2024-03-02")
+				.param("startTime", "11:00").param("endTime", "13:00"))
+			.andDo(print())
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void handleUsers_GetUsersByNameMatchesWithFields_ReturnOnlyRequestedFields() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/users")).param("nameMatches", "2").param("fields", "email"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"content\":[{\"id\":2,\"email\":\"qwe@user.u\"}],\"totalElements\":1}"))
+			.andExpect(jsonPath("$.content[0].fullName").doesNotExist());
 	}
 
 	@Test
@@ -240,6 +511,49 @@ class CampusApiApplicationTests {
 			.andExpect(content().json("{\"id\":3,\"fullName\":\"USER 3\",\"dateOfBirth\":\"2010-10-10\",\"email\":\"third-user@mail.u\"}"));
 	}
 
+	@Test
+	void handleUsers_RetryAddNewUserWithIdempotencyKey_ReplayFirstResponse() throws Exception {
+		String user = """
+			{
+				"fullName": "USER 3",
+				"dateOfBirth": "2010-10-10",
+				"email": "third-user@mail.u"
+			}
+			""";
+		mockMvc
+			.perform(post(apiV1("/users")).header("Idempotency-Key", "retry-1").contentType(MediaType.APPLICATION_JSON).content(user))
+			.andExpect(status().isCreated())
+			.andExpect(header().doesNotExist("Idempotent-Replayed"))
+			.andExpect(jsonPath("$.id").value(3));
+		mockMvc
+			.perform(post(apiV1("/users")).header("Idempotency-Key", "retry-1").contentType(MediaType.APPLICATION_JSON).content(user))
+			.andDo(print())
+			.andExpect(status().isCreated())
+			.andExpect(header().string("Idempotent-Replayed", "true"))
+			.andExpect(jsonPath("$.id").value(3));
+		mockMvc
+			.perform(post(apiV1("/users")).header("Idempotency-Key", "retry-2").contentType(MediaType.APPLICATION_JSON).content(user))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.id").value(4));
+	}
+
+	@Test
+	void handleUsers_ReuseIdempotencyKeyWithAnotherBody_ReturnUnprocessableEntity() throws Exception {
+		mockMvc
+			.perform(post(apiV1("/users")).header("Idempotency-Key", "reused").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"fullName\": \"USER 3\", \"dateOfBirth\": \"2010-10-10\", \"email\": \"third-user@mail.u\"}"))
+			.andExpect(status().isCreated());
+		mockMvc
+			.perform(post(apiV1("/users")).header("Idempotency-Key", "reused").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"fullName\": \"USER 4\", \"dateOfBirth\": \"2010-10-10\", \"email\": \"fourth-user@mail.u\"}"))
+			.andDo(print())
+			.andExpect(status().isUnprocessableEntity())
+			.andExpect(header().doesNotExist("Idempotent-Replayed"));
+		mockMvc
+			.perform(get(apiV1("/users/4")))
+			.andExpect(status().isNotFound());
+	}
+
 	@Test
 	void handleReservations_GetReservationsByUser_ReturnReservationsInJson() throws Exception {
 		mockMvc
@@ -249,7 +563,44 @@ class CampusApiApplicationTests {
 			.andExpect(content().json("{\"content\":[" +
 				  "{\"id\":1,\"dateOfReserv\":\"2024-03-01\",\"startTime\":\"12:00:00\",\"endTime\":\"15:30:00\",\"comment\":\"\"}," +
 				  "{\"id\":3,\"dateOfReserv\":\"2024-03-02\",\"startTime\":\"18:00:00\",\"endTime\":\"19:00:00\",\"comment\":\"\"}]," +
-				  "\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"offset\":0,\"paged\":true,\"unpaged\":false},\"last\":true,\"totalPages\":1,\"totalElements\":2,\"first\":true,\"size\":10,\"number\":0,\"sort\":{\"empty\":true,\"sorted\":false,\"unsorted\":true},\"numberOfElements\":2,\"empty\":false}"));
+				  "\"number\":0,\"size\":10,\"totalElements\":2,\"totalPages\":1}"));
+	}
+
+	@Test
+	void handleReservations_GetReservationsByUserWithRooms_ReturnRoomsOfEachReservationInJson() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/users/1/reservations")).param("expand", "rooms"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content[0].rooms[*].id").value(contains(1, 2, 3)))
+			.andExpect(jsonPath("$.content[1].rooms[*].id").value(contains(1)))
+			.andExpect(content().json("{\"content\":[" +
+				  "{\"id\":1,\"rooms\":[" +
+					"{\"id\":1,\"number\":\"101\",\"type\":\"Лабораторная\",\"campusId\":1,\"campusName\":\"POSIX\"}," +
+					"{\"id\":2,\"number\":\"102-1\",\"type\":\"Лекционная\",\"campusId\":2,\"campusName\":\"INTEX\"}," +
+					"{\"id\":3,\"number\":\"205\",\"type\":\"Лекционная\",\"campusId\":2,\"campusName\":\"INTEX\"}]}," +
+				  "{\"id\":3,\"rooms\":[{\"id\":1,\"number\":\"101\",\"campusName\":\"POSIX\"}]}]," +
+				  "\"totalElements\":2}"));
+	}
+
+	@Test
+	void handleReservations_GetReservationsByUserWithFields_ReturnOnlyRequestedFields() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/users/1/reservations")).param("fields", "dateOfReserv,startTime"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content[*].id").value(contains(1, 3)))
+			.andExpect(jsonPath("$.content[0].dateOfReserv").value("2024-03-01"))
+			.andExpect(jsonPath("$.content[0].startTime").value("12:00:00"))
+			.andExpect(jsonPath("$.content[0].comment").doesNotExist());
+	}
+
+	@Test
+	void handleReservations_GetReservationsByUserWithUnknownExpand_ReturnBadRequest() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/users/1/reservations")).param("expand", "user"))
+			.andDo(print())
+			.andExpect(status().isBadRequest());
 	}
 
 	@Test
@@ -284,4 +635,208 @@ class CampusApiApplicationTests {
 			.andDo(print())
 			.andExpect(status().isCreated());
 	}
+
+	@Test
+	void handleRooms_SubscribeToCampusAvailability_StartEventStream() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms/availability")).accept(MediaType.TEXT_EVENT_STREAM))
+			.andExpect(status().isOk())
+			.andExpect(request().asyncStarted());
+	}
+
+	@Test
+	void handleRooms_SubscribeToNonExistCampusAvailability_ReturnNotFound() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/0/rooms/availability")).accept(MediaType.TEXT_EVENT_STREAM))
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void handleAnalytics_GetCampusUsageByDay_ReturnRollupsInJson() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/analytics/campuses/1/usage")).param("dateFrom", "2024-03-01").param("dateTo", "2024-03-07"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("[" +
+				"{\"periodStart\":\"2024-03-01\",\"bookedMinutes\":270,\"reservationCount\":2}," +
+				"{\"periodStart\":\"2024-03-02\",\"bookedMinutes\":60,\"reservationCount\":1}]", true));
+	}
+
+	@Test
+	void handleAnalytics_AddRoomToReservation_UpdateCampusWeekUsage() throws Exception {
+		mockMvc
+			.perform(put(apiV1("/users/1/reservations/1/rooms/5")))
+			.andExpect(status().isCreated());
+		mockMvc
+			.perform(get(apiV1("/analytics/campuses/1/usage"))
+				.param("dateFrom", "2024-03-01")
+				.param("dateTo", "2024-03-01")
+				.param("period", "WEEK"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{\"periodStart\":\"2024-02-26\",\"bookedMinutes\":540,\"reservationCount\":4}]", true));
+	}
+
+	@Test
+	void handleReservations_ArchivePastReservations_ReturnThemOnlyInHistory() throws Exception {
+		reservationArchiveService.archivePastReservations();
+		mockMvc
+			.perform(get(apiV1("/users/1/reservations")))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").value(0));
+		mockMvc
+			.perform(get(apiV1("/users/1/reservations")).param("includeArchived", "true"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"content\":[" +
+				"{\"id\":1,\"dateOfReserv\":\"2024-03-01\",\"startTime\":\"12:00:00\",\"peopleCount\":100}," +
+				"{\"id\":3,\"dateOfReserv\":\"2024-03-02\",\"startTime\":\"18:00:00\",\"peopleCount\":12}]," +
+				"\"totalElements\":2}"));
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms/4/reservations")).param("includeArchived", "true"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"content\":[{\"id\":2,\"comment\":\"Нужно оборудывание\"}],\"totalElements\":1}"));
+	}
+
+	@Test
+	void handleCampuses_DeleteCampus_DeleteItsRoomsAndKeepReservations() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")))
+			.andExpect(jsonPath("$.totalElements").value(3));
+		mockMvc
+			.perform(delete(apiV1("/campuses/1")))
+			.andDo(print())
+			.andExpect(status().isNoContent());
+		mockMvc
+			.perform(get(apiV1("/campuses/1")))
+			.andExpect(status().isNotFound());
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms")))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").value(0));
+		mockMvc
+			.perform(get(apiV1("/users/2/reservations/2")))
+			.andExpect(status().isOk());
+	}
+
+	@Test
+	void handleRooms_DeleteRoomOfOtherCampus_ReturnNotFound() throws Exception {
+		mockMvc
+			.perform(delete(apiV1("/campuses/2/rooms/4")))
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void handleUsers_DeleteUser_DeleteItsReservations() throws Exception {
+		mockMvc
+			.perform(delete(apiV1("/users/1")))
+			.andDo(print())
+			.andExpect(status().isNoContent());
+		mockMvc
+			.perform(get(apiV1("/users/1")))
+			.andExpect(status().isNotFound());
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms/1/reservations")))
+			.andExpect(jsonPath("$.totalElements").value(0));
+	}
+
+	@Test
+	void handleReservations_DeleteReservation_ReturnNoContentAndTakeItOutOfUsage() throws Exception {
+		mockMvc
+			.perform(delete(apiV1("/users/2/reservations/2")))
+			.andDo(print())
+			.andExpect(status().isNoContent());
+		mockMvc
+			.perform(get(apiV1("/users/2/reservations/2")))
+			.andExpect(status().isNotFound());
+		mockMvc
+			.perform(get(apiV1("/analytics/campuses/1/usage")).param("dateFrom", "2024-03-01").param("dateTo", "2024-03-01"))
+			.andExpect(content().json("[{\"periodStart\":\"2024-03-01\",\"bookedMinutes\":210,\"reservationCount\":1}]"));
+	}
+
+	@Test
+	void handleChanges_AddRoomAndDeleteCampus_ReturnOnlyChangedRows() throws Exception {
+		mockMvc
+			.perform(get(apiV1("/changes")))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"next\":0,\"hasMore\":false}"));
+		mockMvc
+			.perform(post(apiV1("/campuses/1/rooms"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+				{
+					"number": "505",
+					"type": "Лабораторная",
+					"capacity": 30
+				}
+				"""))
+			.andExpect(status().isCreated());
+		mockMvc
+			.perform(delete(apiV1("/campuses/2")))
+			.andExpect(status().isNoContent());
+		mockMvc
+			.perform(get(apiV1("/changes")).param("since", "0"))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"next\":4,\"hasMore\":false,\"campuses\":[]," +
+				"\"rooms\":{\"1\":[{\"id\":6,\"number\":\"505\"}]},\"reservations\":{}," +
+				"\"deleted\":[{\"type\":\"ROOM\",\"id\":2},{\"type\":\"ROOM\",\"id\":3},{\"type\":\"CAMPUS\",\"id\":2}]}"));
+		mockMvc
+			.perform(get(apiV1("/changes")).param("since", "4"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"next\":4,\"campuses\":[],\"rooms\":{},\"deleted\":[]}"));
+	}
+
+	@Test
+	void handleImports_UsersWithInvalidRows_ImportValidAndReportErrors() throws Exception {
+		mockMvc
+			.perform(post(apiV1("/imports/users"))
+				.contentType("text/csv")
+				.content("""
+				full_name,date_of_birth,email
+				"Иванов, Иван",2001-02-03,ivanov@user.u
+				,2001-02-03,empty@user.u
+				Петров Пётр,03.02.2001,petrov@user.u
+				Сидоров Сидор,2002-04-05,sidorov@user.u
+				"""))
+			.andDo(print())
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"imported\":2,\"failed\":2,\"errors\":[" +
+				"{\"line\":3,\"message\":\"User fullName is required\"},{\"line\":4}]}"));
+		mockMvc
+			.perform(get(apiV1("/users/3")))
+			.andExpect(content().json("{\"fullName\":\"Иванов, Иван\",\"dateOfBirth\":\"2001-02-03\"}"));
+		mockMvc
+			.perform(get(apiV1("/users/4")))
+			.andExpect(content().json("{\"fullName\":\"Сидоров Сидор\"}"));
+	}
+
+	@Test
+	void handleImports_RoomsOfUnknownCampus_RejectAndLogImported() throws Exception {
+		mockMvc
+			.perform(post(apiV1("/imports/rooms"))
+				.contentType("text/csv")
+				.content("""
+				campus_id,number,type,capacity
+				1,601,Лекционная,80
+				9,602,Лекционная,80
+				"""))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"imported\":1,\"failed\":1,\"errors\":[{\"line\":3,\"message\":\"Не найден корпус 9\"}]}"));
+		mockMvc
+			.perform(get(apiV1("/campuses/1/rooms/6")))
+			.andExpect(content().json("{\"number\":\"601\",\"capacity\":80}"));
+		mockMvc
+			.perform(get(apiV1("/changes")).param("since", "0"))
+			.andExpect(content().json("{\"next\":1,\"rooms\":{\"1\":[{\"id\":6}]}}"));
+	}
+
+	@Test
+	void handleImports_WrongHeader_ReturnBadRequest() throws Exception {
+		mockMvc
+			.perform(post(apiV1("/imports/reservations"))
+				.contentType("text/csv")
+				.content("user_id,date\n1,2030-01-01\n"))
+			.andExpect(status().isBadRequest());
+	}
 }
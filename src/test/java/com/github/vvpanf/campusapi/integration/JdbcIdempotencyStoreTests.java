@@ -0,0 +1,66 @@
+package com.github.vvpanf.campusapi.integration;
+
+import com.github.vvpanf.campusapi.service.IdempotencyEntry;
+import com.github.vvpanf.campusapi.service.IdempotencyStore;
+import com.github.vvpanf.campusapi.service.IdempotentResponse;
+import com.github.vvpanf.campusapi.service.JdbcIdempotencyStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The claim of a key is a row in {@code idempotency_key}, so it holds for every node that shares the database.
+ */
+@SpringBootTest(properties = "campus.idempotency.store=jdbc")
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JdbcIdempotencyStoreTests {
+	private final IdempotentResponse response = new IdempotentResponse(201, "application/json", "/users/3", "{\"id\":3}".getBytes());
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void handleReserve_KeyClaimed_ReturnFalseUntilReleased() {
+		assertInstanceOf(JdbcIdempotencyStore.class, idempotencyStore);
+		assertTrue(idempotencyStore.reserve("/users key", "hash"));
+		assertFalse(idempotencyStore.reserve("/users key", "other"));
+		assertTrue(idempotencyStore.find("/users key").orElseThrow().isPending());
+		idempotencyStore.release("/users key");
+		assertTrue(idempotencyStore.reserve("/users key", "other"));
+	}
+
+	@Test
+	void handleSave_ClaimedKey_ReplaceClaimWithResponse() {
+		// given
+		idempotencyStore.reserve("/users key", "hash");
+		// when
+		idempotencyStore.save("/users key", "hash", response);
+		// then
+		IdempotencyEntry entry = idempotencyStore.find("/users key").orElseThrow();
+		assertEquals("hash", entry.requestHash());
+		assertEquals(201, entry.response().status());
+		assertEquals("/users/3", entry.response().location());
+		assertArrayEquals(response.body(), entry.response().body());
+		assertFalse(idempotencyStore.reserve("/users key", "hash"));
+	}
+
+	@Test
+	void handleReserve_ClaimExpired_ClaimAgain() {
+		// given
+		idempotencyStore.reserve("/users key", "hash");
+		jdbcTemplate.update("update idempotency_key set expires_at = dateadd(minute, -1, current_timestamp)");
+		// when
+		boolean result = idempotencyStore.reserve("/users key", "other");
+		// then
+		assertTrue(result);
+		assertEquals("other", idempotencyStore.find("/users key").orElseThrow().requestHash());
+	}
+}
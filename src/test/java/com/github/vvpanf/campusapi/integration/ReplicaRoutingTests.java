@@ -0,0 +1,74 @@
+package com.github.vvpanf.campusapi.integration;
+
+import com.github.vvpanf.campusapi.dto.CampusDto;
+import com.github.vvpanf.campusapi.dto.ChangesDto;
+import com.github.vvpanf.campusapi.service.CampusService;
+import com.github.vvpanf.campusapi.service.ChangeLogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The replica profile keeps a second in-memory database that does not receive writes, so a row is
+ * visible to a read-only method only if the read went to the primary.
+ */
+@SpringBootTest
+@ActiveProfiles({"dev", "replica"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReplicaRoutingTests {
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private CampusService campusService;
+	@Autowired
+	private ChangeLogService changeLogService;
+
+	@Test
+	void handleTransactions_ReadOnly_UseReplicaAndReadWrite_UsePrimary() {
+		assertEquals("CAMPUSDB-REPLICA", databaseName(true));
+		assertEquals("CAMPUSDB", databaseName(false));
+	}
+
+	@Test
+	void handleCampuses_AddCampus_WrittenToPrimaryAndNotReadFromReplica() {
+		// given
+		CampusDto campus = campusService.addCampus(new CampusDto(null, "Replica", "Some address", 10));
+		// when
+		CampusDto result = campusService.getCampusByName("Replica");
+		// then
+		assertNotNull(campus.getId());
+		assertNull(result);
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from campus where name = 'Replica'", Integer.class));
+		assertNotNull(campusService.getCampusById(1l));
+	}
+
+	@Test
+	void handleChanges_AddCampus_ReadFromPrimary() {
+		// given
+		CampusDto campus = campusService.addCampus(new CampusDto(null, "Replica", "Some address", 10));
+		// when
+		ChangesDto result = changeLogService.getChanges(0l, 100);
+		// then
+		assertEquals(List.of(campus.getId()), result.getCampuses().stream().map(CampusDto::getId).toList());
+		assertEquals(changeLogService.getLatestToken(), result.getNext());
+	}
+
+	private String databaseName(boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+	}
+}
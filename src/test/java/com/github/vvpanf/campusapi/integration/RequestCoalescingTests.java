@@ -0,0 +1,68 @@
+package com.github.vvpanf.campusapi.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With a micro-cache the response of a room list is replayed by the coalescing filter, which marks it
+ * with the {@code Coalesced} header; other requests are not touched.
+ */
+@SpringBootTest(properties = "campus.coalescing.micro-cache-ttl=1m")
+@TestPropertySource("classpath:application-test.yml")
+@ActiveProfiles("dev")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RequestCoalescingTests {
+	private static final String CONTEXT_PATH = "/api/v1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@TestConfiguration
+	static class ContextPathConfig {
+		@Bean
+		MockMvcBuilderCustomizer contextPath() {
+			return builder -> builder.defaultRequest(get("/").contextPath(CONTEXT_PATH));
+		}
+	}
+
+	@Test
+	void handleRooms_RepeatedGetRequest_ReplayFirstResponse() throws Exception {
+		byte[] rooms = mockMvc
+			.perform(get(CONTEXT_PATH + "/campuses/1/rooms"))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist("Coalesced"))
+			.andReturn().getResponse().getContentAsByteArray();
+		mockMvc
+			.perform(get(CONTEXT_PATH + "/campuses/1/rooms"))
+			.andExpect(status().isOk())
+			.andExpect(header().string("Coalesced", "true"))
+			.andExpect(header().exists("ETag"))
+			.andExpect(content().bytes(rooms));
+	}
+
+	@Test
+	void handleCampuses_RepeatedGetRequest_NotCoalesced() throws Exception {
+		mockMvc
+			.perform(get(CONTEXT_PATH + "/campuses/1"))
+			.andExpect(status().isOk());
+		mockMvc
+			.perform(get(CONTEXT_PATH + "/campuses/1"))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist("Coalesced"));
+	}
+}
@@ -0,0 +1,100 @@
+package com.github.vvpanf.campusapi.integration;
+
+import com.github.vvpanf.campusapi.service.ReservationService;
+import com.github.vvpanf.campusapi.service.UsageRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rollups are built from the dev seed on startup, so after a rebuild they must match that state again.
+ */
+@SpringBootTest
+@ActiveProfiles("dev")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UsageRollupRebuildTests {
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private UsageRollupService usageRollupService;
+	@Autowired
+	private ReservationService reservationService;
+
+	@Test
+	void handleRebuild_DriftedRollups_RestoreTotalsOfReservations() {
+		// given
+		List<Map<String, Object>> expected = rollups();
+		jdbcTemplate.update("update usage_rollup set booked_minutes = 0, reservation_count = 5 " +
+				"where scope_type = 'CAMPUS' and scope_id = 1 and period_type = 'WEEK'");
+		jdbcTemplate.update("delete from usage_rollup where scope_type = 'ROOM' and scope_id = 1 and period_type = 'DAY'");
+		jdbcTemplate.update("insert into usage_rollup(scope_type, scope_id, period_type, period_start, booked_minutes, reservation_count) " +
+				"values ('ROOM', 5, 'DAY', '2023-01-02', 60, 1)");
+		// when
+		usageRollupService.rebuild();
+		// then
+		assertEquals(expected, rollups());
+		assertEquals(0, minutes("ROOM", 5, "DAY", "2023-01-02"));
+	}
+
+	@Test
+	void handleRebuild_UncommittedRoomOfReservation_KeepItsMinutes() throws Exception {
+		// given
+		jdbcTemplate.update("update usage_rollup set booked_minutes = 0 " +
+				"where scope_type = 'CAMPUS' and scope_id = 1 and period_type = 'DAY' and period_start = '2024-03-02'");
+		CountDownLatch recorded = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		CompletableFuture<Void> addRoom = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			reservationService.addReservationRoom(1l, 3l, 4l);
+			recorded.countDown();
+			await(commit);
+		}));
+		assertEquals(true, recorded.await(5, TimeUnit.SECONDS));
+		// when
+		CompletableFuture<Void> rebuild = CompletableFuture.runAsync(usageRollupService::rebuild);
+		Thread.sleep(200);
+		commit.countDown();
+		addRoom.get(5, TimeUnit.SECONDS);
+		rebuild.get(5, TimeUnit.SECONDS);
+		// then
+		assertEquals(120, minutes("CAMPUS", 1, "DAY", "2024-03-02"));
+		assertEquals(60, minutes("ROOM", 4, "DAY", "2024-03-02"));
+		List<Map<String, Object>> expected = rollups();
+		usageRollupService.rebuild();
+		assertEquals(expected, rollups());
+	}
+
+	private List<Map<String, Object>> rollups() {
+		return jdbcTemplate.queryForList("select scope_type, scope_id, period_type, period_start, booked_minutes, reservation_count " +
+				"from usage_rollup where booked_minutes <> 0 or reservation_count <> 0 " +
+				"order by scope_type, scope_id, period_type, period_start");
+	}
+
+	private long minutes(String scope, long scopeId, String period, String periodStart) {
+		return jdbcTemplate.queryForObject("select coalesce(sum(booked_minutes), 0) from usage_rollup " +
+				"where scope_type = ? and scope_id = ? and period_type = ? and period_start = cast(? as date)",
+				Long.class, scope, scopeId, period, periodStart);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.vvpanf.campusapi.event.ReservationRoomAddedEvent;
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityFeedServiceTest {
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    @InjectMocks
+    private AvailabilityFeedService availabilityFeedService;
+
+    private final LocalDate date = LocalDate.of(2024, 3, 1);
+    private final LocalTime startTime = LocalTime.of(10, 0);
+    private final LocalTime endTime = LocalTime.of(12, 0);
+
+    @Test
+    public void handlePublishPending_SeveralChangesInWindow_SendOneEventToEverySubscriber() throws IOException {
+        // given
+        SseEmitter first = mock(SseEmitter.class);
+        SseEmitter second = mock(SseEmitter.class);
+        availabilityFeedService.register(1l, first);
+        availabilityFeedService.register(1l, second);
+        availabilityFeedService.onReservationRoomAdded(new ReservationRoomAddedEvent(1l, 4l, date, startTime, endTime));
+        availabilityFeedService.onReservationRoomAdded(new ReservationRoomAddedEvent(1l, 4l, date, startTime, endTime));
+        availabilityFeedService.onReservationRoomAdded(new ReservationRoomAddedEvent(1l, 5l, date, startTime, endTime));
+        // when
+        availabilityFeedService.publishPending();
+        availabilityFeedService.publishPending();
+        // then
+        ArgumentCaptor<SseEmitter.SseEventBuilder> event = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(first, times(1)).send(event.capture());
+        verify(second, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(objectMapper, times(1)).writeValueAsString(any());
+        String text = event.getValue().build().stream().map(data -> data.getData().toString()).collect(Collectors.joining());
+        assertTrue(text.contains("event:availability"));
+        assertEquals(1, text.split("\"roomId\":4", -1).length - 1);
+        assertTrue(text.contains("\"roomId\":5"));
+    }
+
+    @Test
+    public void handlePublishPending_RoomBookedAndFreedInWindow_SendOnlyLatestChange() throws IOException {
+        // given
+        SseEmitter emitter = mock(SseEmitter.class);
+        availabilityFeedService.register(1l, emitter);
+        availabilityFeedService.onReservationRoomAdded(new ReservationRoomAddedEvent(1l, 4l, date, startTime, endTime));
+        availabilityFeedService.onReservationRoomRemoved(new ReservationRoomRemovedEvent(1l, 4l, date, startTime, endTime));
+        // when
+        availabilityFeedService.publishPending();
+        // then
+        ArgumentCaptor<SseEmitter.SseEventBuilder> event = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, times(1)).send(event.capture());
+        String text = event.getValue().build().stream().map(data -> data.getData().toString()).collect(Collectors.joining());
+        assertEquals(1, text.split("\"roomId\":4", -1).length - 1);
+        assertTrue(text.contains("\"available\":true"));
+        assertFalse(text.contains("\"available\":false"));
+    }
+
+    @Test
+    public void handlePublishPending_NoSubscribers_SendNothing() throws IOException {
+        // given
+        SseEmitter other = mock(SseEmitter.class);
+        availabilityFeedService.register(2l, other);
+        availabilityFeedService.onReservationRoomAdded(new ReservationRoomAddedEvent(1l, 4l, date, startTime, endTime));
+        // when
+        availabilityFeedService.publishPending();
+        // then
+        verify(other, never()).send(any(SseEmitter.SseEventBuilder.class));
+        verifyNoInteractions(objectMapper);
+    }
+
+    @Test
+    public void handlePublishPending_SendFails_DropSubscriber() throws IOException {
+        // given
+        SseEmitter broken = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(broken).send(any(SseEmitter.SseEventBuilder.class));
+        availabilityFeedService.register(1l, broken);
+        availabilityFeedService.onReservationRoomAdded(new ReservationRoomAddedEvent(1l, 4l, date, startTime, endTime));
+        availabilityFeedService.publishPending();
+        availabilityFeedService.onReservationRoomAdded(new ReservationRoomAddedEvent(1l, 5l, date, startTime, endTime));
+        // when
+        availabilityFeedService.publishPending();
+        // then
+        verify(broken, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(broken, times(1)).completeWithError(any());
+        assertTrue(availabilityFeedService.getSubscribedCampusIds().isEmpty());
+    }
+
+    @Test
+    public void handleRegister_LastSubscriberCompletes_DropCampus() {
+        // given
+        SseEmitter first = mock(SseEmitter.class);
+        SseEmitter second = mock(SseEmitter.class);
+        availabilityFeedService.register(1l, first);
+        availabilityFeedService.register(1l, second);
+        ArgumentCaptor<Runnable> firstCompletion = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Runnable> secondTimeout = ArgumentCaptor.forClass(Runnable.class);
+        verify(first).onCompletion(firstCompletion.capture());
+        verify(second).onTimeout(secondTimeout.capture());
+        // when
+        firstCompletion.getValue().run();
+        boolean keptWithOneSubscriber = availabilityFeedService.getSubscribedCampusIds().contains(1l);
+        secondTimeout.getValue().run();
+        // then
+        assertTrue(keptWithOneSubscriber);
+        assertTrue(availabilityFeedService.getSubscribedCampusIds().isEmpty());
+    }
+}
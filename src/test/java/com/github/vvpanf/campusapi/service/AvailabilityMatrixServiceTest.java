@@ -0,0 +1,97 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.AvailabilityMatrixDto;
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.RoomDateRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityMatrixServiceTest {
+    @Mock
+    private RoomIndexService roomIndexService;
+    @Mock
+    private ReservationRepo reservationRepo;
+    @InjectMocks
+    private AvailabilityMatrixService availabilityMatrixService;
+
+    private final LocalDate dateFrom = LocalDate.of(2024, 3, 4);
+    private final LocalDate dateTo = LocalDate.of(2024, 3, 8);
+    private final LocalTime startTime = LocalTime.of(10, 0);
+    private final LocalTime endTime = LocalTime.of(11, 30);
+
+    @BeforeEach
+    public void beforeEach() {
+        lenient().when(roomIndexService.getIndex(1l)).thenReturn(new CampusRoomIndex(List.of(
+                new RoomDto(3l, "301", "Lecture", 100), new RoomDto(1l, "101", "Lab", 15), new RoomDto(2l, "201", "Lecture", 40))));
+    }
+
+    @Test
+    public void handleGetMatrix_AllRooms_ReturnRoomsInIdOrderWithBusyDates() {
+        // given
+        when(reservationRepo.findBusyRoomDates(1l, dateFrom, dateTo, startTime, endTime)).thenReturn(List.of(
+                new RoomDateRow(3l, dateTo), new RoomDateRow(1l, dateFrom), new RoomDateRow(1l, dateFrom.plusDays(2))));
+        // when
+        AvailabilityMatrixDto result = availabilityMatrixService.getMatrix(1l, null, dateFrom, dateTo, startTime, endTime);
+        // then
+        assertEquals(List.of(1l, 2l, 3l), result.getRoomIds());
+        assertEquals(List.of("01011", "11111", "11110"), result.getFree());
+        assertEquals(List.of(), result.getMissing());
+    }
+
+    @Test
+    public void handleGetMatrix_RequestedRooms_ReturnRequestOrderAndMissing() {
+        // given
+        when(reservationRepo.findBusyRoomDates(1l, dateFrom, dateTo, startTime, endTime)).thenReturn(List.of(
+                new RoomDateRow(2l, dateFrom.plusDays(1)), new RoomDateRow(1l, dateFrom)));
+        // when
+        AvailabilityMatrixDto result = availabilityMatrixService.getMatrix(1l, List.of(2l, 7l, 3l, 2l), dateFrom, dateTo, startTime, endTime);
+        // then
+        assertEquals(List.of(2l, 3l), result.getRoomIds());
+        assertEquals(List.of("10111", "11111"), result.getFree());
+        assertEquals(List.of(7l), result.getMissing());
+    }
+
+    @Test
+    public void handleGetMatrix_RangeTooLong_ShouldThrowException() {
+        // when
+        // then
+        assertThrows(ValidationException.class,
+                () -> availabilityMatrixService.getMatrix(1l, null, dateFrom, dateFrom.plusDays(92), startTime, endTime));
+        verifyNoInteractions(reservationRepo);
+    }
+
+    @Test
+    public void handleGetMatrix_UnknownCampus_ReturnNull() {
+        // given
+        when(roomIndexService.getIndex(2l)).thenReturn(null);
+        // when
+        AvailabilityMatrixDto result = availabilityMatrixService.getMatrix(2l, null, dateFrom, dateTo, startTime, endTime);
+        // then
+        assertNull(result);
+        verifyNoInteractions(reservationRepo);
+    }
+
+    @Test
+    public void handleGetMatrix_EmptyRoomId_ShouldThrowException() {
+        // when
+        // then
+        assertThrows(ValidationException.class,
+                () -> availabilityMatrixService.getMatrix(1l, Arrays.asList(1l, null, 2l), dateFrom, dateTo, startTime, endTime));
+        verifyNoInteractions(reservationRepo);
+    }
+}
@@ -3,8 +3,11 @@ package com.github.vvpanf.campusapi.service;
 import com.github.vvpanf.campusapi.dto.CampusDto;
 import com.github.vvpanf.campusapi.dto.UserDto;
 import com.github.vvpanf.campusapi.entity.Campus;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry;
 import com.github.vvpanf.campusapi.entity.User;
+import com.github.vvpanf.campusapi.event.CampusChangedEvent;
 import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
 import com.github.vvpanf.campusapi.utils.TestUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -29,6 +33,14 @@ import static org.mockito.Mockito.*;
 class CampusServiceTest {
     @Mock
     private CampusRepo campusRepo;
+    @Mock
+    private ReservationRepo reservationRepo;
+    @Mock
+    private UsageRollupService usageRollupService;
+    @Mock
+    private ChangeLogService changeLogService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @Spy
     private ModelMapper modelMapper = new ModelMapper();
     @InjectMocks
@@ -44,7 +56,7 @@ class CampusServiceTest {
     @Test
     public void handleGetAllCampuses_CampusListIsEmpty_ReturnEmptyPage() {
         // given
-        when(campusRepo.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(campusRepo.findAllDtos(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
         // when
         Page<CampusDto> result = campusService.getAllCampuses(pageable);
         // then
@@ -54,15 +66,15 @@ class CampusServiceTest {
     @Test
     public void handleGetAllCampuses_CampusListPresent_ReturnPageWithCampuses() {
         // given
-        when(campusRepo.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(campusList));
-        // when
-        Page<CampusDto> result = campusService.getAllCampuses(pageable);
-        // then
         List<CampusDto> expectedCampusList = List.of(
                 new CampusDto(1l, "Campus 1", "Some address", 10),
                 new CampusDto(2l, "Campus 2", "Some other address", 15),
                 new CampusDto(3l, "Campus 3", "Address", 30)
         );
+        when(campusRepo.findAllDtos(any(Pageable.class))).thenReturn(new PageImpl<>(expectedCampusList));
+        // when
+        Page<CampusDto> result = campusService.getAllCampuses(pageable);
+        // then
         assertArrayEquals(expectedCampusList.toArray(), result.getContent().toArray());
         assertEquals(1, result.getTotalPages());
         assertEquals(3, result.getTotalElements());
@@ -123,4 +135,33 @@ class CampusServiceTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    public void handleDeleteCampus_CampusExists_DeleteInBulkAndPublishEvent() {
+        // given
+        when(campusRepo.existsById(1l)).thenReturn(true);
+        // when
+        boolean result = campusService.deleteCampus(1l);
+        // then
+        assertTrue(result);
+        verify(reservationRepo, times(1)).deleteRoomLinksByCampusId(1l);
+        verify(usageRollupService, times(1)).deleteCampusUsage(1l);
+        verify(changeLogService, times(1)).recordCampusRoomsDeleted(1l);
+        verify(changeLogService, times(1)).recordDelete(ChangeLogEntry.EntityType.CAMPUS, 1l);
+        verify(campusRepo, times(1)).deleteInBulkById(1l);
+        verify(campusRepo, never()).delete(any());
+        verify(eventPublisher, times(1)).publishEvent(new CampusChangedEvent(1l));
+    }
+
+    @Test
+    public void handleDeleteCampus_CampusNotFound_ReturnFalse() {
+        // given
+        when(campusRepo.existsById(1l)).thenReturn(false);
+        // when
+        boolean result = campusService.deleteCampus(1l);
+        // then
+        assertFalse(result);
+        verify(campusRepo, never()).deleteInBulkById(anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+}
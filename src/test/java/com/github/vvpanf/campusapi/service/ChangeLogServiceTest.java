@@ -0,0 +1,161 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.CampusDto;
+import com.github.vvpanf.campusapi.dto.ChangesDto;
+import com.github.vvpanf.campusapi.dto.DeletedEntityDto;
+import com.github.vvpanf.campusapi.entity.Campus;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry.EntityType;
+import com.github.vvpanf.campusapi.entity.ChangeLogEntry.Operation;
+import com.github.vvpanf.campusapi.entity.Room;
+import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.ChangeLogRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.RoomRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeLogServiceTest {
+    @Mock
+    private ChangeLogRepo changeLogRepo;
+    @Mock
+    private CampusRepo campusRepo;
+    @Mock
+    private RoomRepo roomRepo;
+    @Mock
+    private ReservationRepo reservationRepo;
+
+    private final Instant now = Instant.parse("2024-03-10T12:00:00Z");
+    private final Instant old = now.minusSeconds(60);
+    private final Campus campus = new Campus(1l, "Campus 1", "Address 1", 10);
+    private ChangeLogService changeLogService;
+
+    @BeforeEach
+    public void beforeEach() {
+        changeLogService = new ChangeLogService(changeLogRepo, campusRepo, roomRepo, reservationRepo, new ModelMapper(),
+                Duration.ofSeconds(5), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void handleGetChanges_UpdatedAndDeletedRows_ReturnLatestStatePerRow() {
+        // given
+        when(changeLogRepo.findAllBySeqGreaterThanOrderBySeq(10l, PageRequest.of(0, 11))).thenReturn(List.of(
+                new ChangeLogEntry(11l, EntityType.ROOM, 5l, Operation.UPSERT, old),
+                new ChangeLogEntry(12l, EntityType.CAMPUS, 1l, Operation.UPSERT, old),
+                new ChangeLogEntry(13l, EntityType.ROOM, 6l, Operation.UPSERT, old),
+                new ChangeLogEntry(14l, EntityType.ROOM, 6l, Operation.DELETE, old)));
+        when(campusRepo.findDtosByIdIn(List.of(1l))).thenReturn(List.of(new CampusDto(1l, "Campus 1", "Address 1", 10)));
+        when(roomRepo.findAllById(List.of(5l))).thenReturn(List.of(new Room(5l, "101", "Lecture", 30, campus)));
+        // when
+        ChangesDto changes = changeLogService.getChanges(10l, 10);
+        // then
+        assertEquals(14l, changes.getNext());
+        assertFalse(changes.getHasMore());
+        assertEquals(1, changes.getCampuses().size());
+        assertEquals(5l, changes.getRooms().get(1l).get(0).getId());
+        assertTrue(changes.getReservations().isEmpty());
+        assertEquals(List.of(new DeletedEntityDto("ROOM", 6l)), changes.getDeleted());
+        verify(reservationRepo, times(1)).findRowsByIdIn(Collections.emptyList());
+    }
+
+    @Test
+    public void handleGetChanges_MoreThanLimit_ReturnHasMore() {
+        // given
+        when(changeLogRepo.findAllBySeqGreaterThanOrderBySeq(0l, PageRequest.of(0, 2))).thenReturn(List.of(
+                new ChangeLogEntry(1l, EntityType.RESERVATION, 1l, Operation.DELETE, old),
+                new ChangeLogEntry(2l, EntityType.RESERVATION, 2l, Operation.DELETE, old)));
+        // when
+        ChangesDto changes = changeLogService.getChanges(0l, 1);
+        // then
+        assertEquals(1l, changes.getNext());
+        assertTrue(changes.getHasMore());
+        assertEquals(List.of(new DeletedEntityDto("RESERVATION", 1l)), changes.getDeleted());
+    }
+
+    @Test
+    public void handleGetChanges_RecentGap_StopBeforeGap() {
+        // given
+        when(changeLogRepo.findAllBySeqGreaterThanOrderBySeq(0l, PageRequest.of(0, 11))).thenReturn(List.of(
+                new ChangeLogEntry(1l, EntityType.CAMPUS, 1l, Operation.DELETE, old),
+                new ChangeLogEntry(3l, EntityType.CAMPUS, 2l, Operation.DELETE, now)));
+        // when
+        ChangesDto changes = changeLogService.getChanges(0l, 10);
+        // then
+        assertEquals(1l, changes.getNext());
+        assertFalse(changes.getHasMore());
+        assertEquals(List.of(new DeletedEntityDto("CAMPUS", 1l)), changes.getDeleted());
+    }
+
+    @Test
+    public void handleGetChanges_OldGap_SkipGap() {
+        // given
+        when(changeLogRepo.findAllBySeqGreaterThanOrderBySeq(0l, PageRequest.of(0, 11))).thenReturn(List.of(
+                new ChangeLogEntry(1l, EntityType.CAMPUS, 1l, Operation.DELETE, old),
+                new ChangeLogEntry(3l, EntityType.CAMPUS, 2l, Operation.DELETE, old)));
+        // when
+        ChangesDto changes = changeLogService.getChanges(0l, 10);
+        // then
+        assertEquals(3l, changes.getNext());
+        assertEquals(2, changes.getDeleted().size());
+    }
+
+    @Test
+    public void handleGetChanges_OldGapWhileLogWriterRuns_StopBeforeGapUntilWriterCompletes() {
+        // given
+        when(changeLogRepo.findAllBySeqGreaterThanOrderBySeq(0l, PageRequest.of(0, 11))).thenReturn(List.of(
+                new ChangeLogEntry(1l, EntityType.CAMPUS, 1l, Operation.DELETE, old),
+                new ChangeLogEntry(3l, EntityType.CAMPUS, 2l, Operation.DELETE, old)));
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            changeLogService.recordUpsert(EntityType.CAMPUS, 3l);
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // when
+        ChangesDto whileRunning = changeLogService.getChanges(0l, 10);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        ChangesDto afterCompletion = changeLogService.getChanges(0l, 10);
+        // then
+        assertEquals(1l, whileRunning.getNext());
+        assertEquals(3l, afterCompletion.getNext());
+    }
+
+    @Test
+    public void handleGetChanges_NegativeToken_ThrowValidationException() {
+        // when
+        // then
+        assertThrows(ValidationException.class, () -> changeLogService.getChanges(-1l, 10));
+        verifyNoInteractions(changeLogRepo);
+    }
+
+    @Test
+    public void handleRecordDelete_Room_SaveDeleteEntry() {
+        // when
+        changeLogService.recordDelete(EntityType.ROOM, 5l);
+        // then
+        verify(changeLogRepo, times(1)).save(new ChangeLogEntry(null, EntityType.ROOM, 5l, Operation.DELETE, now));
+        verify(changeLogRepo, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.vvpanf.campusapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    public void handleNext_PlainAndQuotedFields_ReturnRecordsWithLines() throws IOException {
+        // given
+        CsvReader reader = new CsvReader(new BufferedReader(new StringReader(
+                "a,b,c\r\n\"x, y\",\"say \"\"hi\"\"\",\n\"multi\nline\",,z")));
+        // when
+        // then
+        assertEquals(List.of("a", "b", "c"), reader.next());
+        assertEquals(1, reader.line());
+        assertEquals(List.of("x, y", "say \"hi\"", ""), reader.next());
+        assertEquals(2, reader.line());
+        assertEquals(List.of("multi\nline", "", "z"), reader.next());
+        assertEquals(3, reader.line());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void handleNext_TrailingNewLine_ReturnNullAfterLastRecord() throws IOException {
+        // given
+        CsvReader reader = new CsvReader(new BufferedReader(new StringReader("a\n\nb\n")));
+        // when
+        // then
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(List.of(""), reader.next());
+        assertEquals(List.of("b"), reader.next());
+        assertEquals(3, reader.line());
+        assertNull(reader.next());
+    }
+}
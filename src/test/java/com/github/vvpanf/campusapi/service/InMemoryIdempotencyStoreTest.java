@@ -0,0 +1,78 @@
+package com.github.vvpanf.campusapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest {
+    private final IdempotentResponse response = new IdempotentResponse(201, "application/json", null, "{\"id\":1}".getBytes());
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-03-01T10:00:00Z"));
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(10), 2, clock);
+
+    @Test
+    public void handleFind_SavedKey_ReturnResponse() {
+        store.save("key", "hash", response);
+        assertEquals(new IdempotencyEntry("hash", response), store.find("key").orElseThrow());
+    }
+
+    @Test
+    public void handleFind_ExpiredKey_ReturnEmpty() {
+        store.save("key", "hash", response);
+        clock.instant = clock.instant.plus(Duration.ofMinutes(11));
+        assertTrue(store.find("key").isEmpty());
+    }
+
+    @Test
+    public void handleReserve_ClaimedKey_ReturnFalseUntilReleased() {
+        assertTrue(store.reserve("key", "hash"));
+        assertFalse(store.reserve("key", "other"));
+        assertTrue(store.find("key").orElseThrow().isPending());
+        store.release("key");
+        assertTrue(store.reserve("key", "other"));
+    }
+
+    @Test
+    public void handleReserve_SavedKey_ReturnFalse() {
+        store.save("key", "hash", response);
+        assertFalse(store.reserve("key", "hash"));
+    }
+
+    @Test
+    public void handleSave_OverMaxEntries_DropOldestKey() {
+        store.save("first", "hash", response);
+        store.save("second", "hash", response);
+        store.save("third", "hash", response);
+        assertTrue(store.find("first").isEmpty());
+        assertTrue(store.find("second").isPresent());
+        assertTrue(store.find("third").isPresent());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.vvpanf.campusapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCostLimiterTest {
+    private final RequestCostLimiter limiter = new RequestCostLimiter(100, 1, 10);
+
+    @Test
+    public void handleTryAcquire_WithinCapacity_ReturnTrue() {
+        assertTrue(limiter.tryAcquire("client", 60));
+        assertTrue(limiter.tryAcquire("client", 40));
+    }
+
+    @Test
+    public void handleTryAcquire_OverCapacity_ReturnFalse() {
+        assertTrue(limiter.tryAcquire("client", 60));
+        assertFalse(limiter.tryAcquire("client", 60));
+        assertTrue(limiter.secondsUntilAvailable("client", 60) > 0);
+    }
+
+    @Test
+    public void handleCharge_ScannedRowsPutClientInDebt_RejectNextRequest() {
+        assertTrue(limiter.tryAcquire("client", 10));
+        limiter.charge("client", 500);
+        assertFalse(limiter.tryAcquire("client", 1));
+    }
+
+    @Test
+    public void handleTryAcquire_OtherClientInDebt_ReturnTrue() {
+        assertTrue(limiter.tryAcquire("greedy", 10));
+        limiter.charge("greedy", 500);
+        assertTrue(limiter.tryAcquire("client", 10));
+    }
+}
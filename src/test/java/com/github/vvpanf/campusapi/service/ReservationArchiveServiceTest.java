@@ -0,0 +1,73 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationArchiveServiceTest {
+    @Mock
+    private ReservationRepo reservationRepo;
+    @Mock
+    private ReservationArchiveRepo reservationArchiveRepo;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDate today = LocalDate.of(2024, 3, 10);
+    private ReservationArchiveService reservationArchiveService;
+
+    @BeforeEach
+    public void beforeEach() {
+        Clock clock = Clock.fixed(Instant.parse("2024-03-10T12:00:00Z"), ZoneOffset.UTC);
+        reservationArchiveService = new ReservationArchiveService(reservationRepo, reservationArchiveRepo, transactionTemplate, 2, clock);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    public void handleArchivePastReservations_MoreThanOneBatch_MoveAllInBatches() {
+        // given
+        when(reservationRepo.findIdsByDateOfReservBefore(today, PageRequest.of(0, 2)))
+                .thenReturn(List.of(1l, 2l), List.of(3l), Collections.emptyList());
+        // when
+        int archived = reservationArchiveService.archivePastReservations();
+        // then
+        assertEquals(3, archived);
+        verify(reservationArchiveRepo).copyReservations(List.of(1l, 2l));
+        verify(reservationArchiveRepo).copyReservationRooms(List.of(1l, 2l));
+        verify(reservationRepo).deleteAllByIdIn(List.of(1l, 2l));
+        verify(reservationArchiveRepo).copyReservations(List.of(3l));
+        verify(reservationRepo).deleteRoomLinksByReservationIdIn(List.of(3l));
+        verify(reservationRepo).deleteAllByIdIn(List.of(3l));
+        verify(reservationRepo, times(2)).findIdsByDateOfReservBefore(any(), any());
+    }
+
+    @Test
+    public void handleArchivePastReservations_NothingPast_ArchiveNothing() {
+        // given
+        when(reservationRepo.findIdsByDateOfReservBefore(today, PageRequest.of(0, 2))).thenReturn(Collections.emptyList());
+        // when
+        int archived = reservationArchiveService.archivePastReservations();
+        // then
+        assertEquals(0, archived);
+        verifyNoInteractions(reservationArchiveRepo);
+    }
+}
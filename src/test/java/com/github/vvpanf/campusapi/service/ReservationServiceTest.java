@@ -2,11 +2,20 @@ package com.github.vvpanf.campusapi.service;
 
 import com.github.vvpanf.campusapi.ValidationException;
 import com.github.vvpanf.campusapi.dto.ReservationDto;
+import com.github.vvpanf.campusapi.dto.ReservationRoomDto;
+import com.github.vvpanf.campusapi.dto.ReservationWithRoomsDto;
+import com.github.vvpanf.campusapi.entity.Campus;
 import com.github.vvpanf.campusapi.entity.Reservation;
 import com.github.vvpanf.campusapi.entity.Room;
 import com.github.vvpanf.campusapi.entity.User;
+import com.github.vvpanf.campusapi.event.ReservationRoomAddedEvent;
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
 import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRoomView;
+import com.github.vvpanf.campusapi.repo.ReservationRow;
 import com.github.vvpanf.campusapi.repo.RoomRepo;
+import com.github.vvpanf.campusapi.repo.RoomUsageRow;
 import com.github.vvpanf.campusapi.repo.UserRepo;
 import com.github.vvpanf.campusapi.utils.TestUtils;
 import org.junit.jupiter.api.Test;
@@ -16,6 +25,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -40,6 +50,14 @@ class ReservationServiceTest {
     private UserRepo userRepo;
     @Mock
     private RoomRepo roomRepo;
+    @Mock
+    private ReservationArchiveRepo reservationArchiveRepo;
+    @Mock
+    private UsageRollupService usageRollupService;
+    @Mock
+    private ChangeLogService changeLogService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @Spy
     private ModelMapper modelMapper;
     @InjectMocks
@@ -50,10 +68,13 @@ class ReservationServiceTest {
     private final LocalTime startTime = LocalTime.of(10, 0);
     private final LocalTime endTime = LocalTime.of(12, 0);
     private final List<Reservation> reservationList = List.of(
-        new Reservation(1l, dateOfReserv, LocalTime.of(10, 0), LocalTime.of(11, 0), null, null),
-        new Reservation(2l, dateOfReserv, LocalTime.of(11, 0), LocalTime.of(12, 0), null, null),
-        new Reservation(3l, dateOfReserv, LocalTime.of(13, 0), LocalTime.of(14, 0), null, null)
+        new Reservation(1l, dateOfReserv, LocalTime.of(10, 0), LocalTime.of(11, 0), null, null, null),
+        new Reservation(2l, dateOfReserv, LocalTime.of(11, 0), LocalTime.of(12, 0), null, null, null),
+        new Reservation(3l, dateOfReserv, LocalTime.of(13, 0), LocalTime.of(14, 0), null, null, null)
     );
+    private final List<ReservationRow> reservationRowList = reservationList.stream()
+        .map(res -> new ReservationRow(res.getId(), 1l, res.getDateOfReserv(), res.getStartTime(), res.getEndTime(), null, null))
+        .toList();
     private final User user = new User(1l, "User 1", LocalDate.of(2010, 10, 10), "some@mail.ru");
 
     @Test
@@ -161,7 +182,7 @@ class ReservationServiceTest {
     @Test
     public void handleGetReservationsByUserId_ReservationsNotFound_ReturnEmptyPage() {
         // given
-        when(reservationRepo.findAllByUserId(anyLong(), any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(reservationRepo.findRowsByUserId(anyLong(), any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
         // when
         Page<ReservationDto> result = reservationService.getReservationsByUserId(1l, pageable);
         // then
@@ -171,7 +192,7 @@ class ReservationServiceTest {
     @Test
     public void handleGetReservationsByUserId_ReservationsFound_ReturnPageWithReservations() {
         // given
-        when(reservationRepo.findAllByUserId(anyLong(), any(Pageable.class))).thenReturn(new PageImpl<>(reservationList));
+        when(reservationRepo.findRowsByUserId(anyLong(), any(Pageable.class))).thenReturn(new PageImpl<>(reservationRowList));
         // when
         Page<ReservationDto> result = reservationService.getReservationsByUserId(1l, pageable);
         // then
@@ -209,8 +230,9 @@ class ReservationServiceTest {
     @Test
     public void handleAddReservation_SuccessfulAdd_ReturnNewReservationDto() {
         // given
-        when(userRepo.findById(anyLong())).thenReturn(Optional.of(user));
-        when(reservationRepo.save(any())).thenReturn(reservationList.get(0));
+        when(userRepo.existsById(anyLong())).thenReturn(true);
+        when(userRepo.getReferenceById(anyLong())).thenReturn(user);
+        when(reservationRepo.save(argThat((Reservation reservation) -> reservation.getUser() == user))).thenReturn(reservationList.get(0));
         // when
         ReservationDto newReservation = new ReservationDto(null, dateOfReserv, LocalTime.of(10, 0), LocalTime.of(11, 0), null, null);
         ReservationDto result = reservationService.addReservation(1l, newReservation);
@@ -222,7 +244,7 @@ class ReservationServiceTest {
     @Test
     public void handleAddReservation_FailedAddNoSuchUser_ReturnNull() {
         // given
-        when(userRepo.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepo.existsById(anyLong())).thenReturn(false);
         // when
         ReservationDto newReservation = new ReservationDto(null, dateOfReserv, LocalTime.of(10, 0), LocalTime.of(11, 0), null, null);
         ReservationDto result = reservationService.addReservation(1l, newReservation);
@@ -255,7 +277,7 @@ class ReservationServiceTest {
     public void handleValidateReservationRoom_ReservationContainsRoom_ShouldThrowException() {
         // given
         Room room = new Room(1l, "101", "Lab", 20, null);
-        Reservation reservation = new Reservation(1l, dateOfReserv, startTime, endTime, null, null);
+        Reservation reservation = new Reservation(1l, dateOfReserv, startTime, endTime, null, null, null);
         reservation.getRooms().add(room);
         when(reservationRepo.findByIdAndUserId(anyLong(), anyLong())).thenReturn(Optional.of(reservation));
         when(roomRepo.findById(anyLong())).thenReturn(Optional.of(room));
@@ -265,14 +287,27 @@ class ReservationServiceTest {
         assertEquals("Комната уже присутствует в брони", exception.getMessage());
     }
 
+    @Test
+    public void handleValidateReservationRoom_ReservationContainsRoomWithSameId_ShouldThrowException() {
+        // given
+        Reservation reservation = new Reservation(1l, dateOfReserv, startTime, endTime, null, null, null);
+        reservation.getRooms().add(new Room(1l, "101", "Lab", 20, null));
+        when(reservationRepo.findByIdAndUserId(anyLong(), anyLong())).thenReturn(Optional.of(reservation));
+        when(roomRepo.findById(anyLong())).thenReturn(Optional.of(new Room(1l, "101-a", "Lecture", 40, null)));
+        // when
+        Exception exception = assertThrows(ValidationException.class, () -> reservationService.validateReservationRoom(1l, 1l, 1l));
+        // then
+        assertEquals("Комната уже присутствует в брони", exception.getMessage());
+    }
+
     @Test
     public void handleValidateReservationRoom_RoomReservedOnThisTime_ShouldThrowException() {
         // given
         Room room = new Room(1l, "101", "Lab", 20, null);
-        Reservation reservation1 = new Reservation(1l, dateOfReserv, startTime, endTime, null, null);
+        Reservation reservation1 = new Reservation(1l, dateOfReserv, startTime, endTime, null, null, null);
         room.getReservations().add(reservation1);
 
-        Reservation reservation2 = new Reservation(2l, dateOfReserv, startTime, endTime, null, null);
+        Reservation reservation2 = new Reservation(2l, dateOfReserv, startTime, endTime, null, null, null);
         when(reservationRepo.findByIdAndUserId(anyLong(), anyLong())).thenReturn(Optional.of(reservation2));
         when(roomRepo.findById(anyLong())).thenReturn(Optional.of(room));
         // when
@@ -285,10 +320,10 @@ class ReservationServiceTest {
     public void handleValidateReservationRoom_RoomReservedOnOtherDay_ShouldNotThrowException() {
         // given
         Room room = new Room(1l, "101", "Lab", 20, null);
-        Reservation reservation1 = new Reservation(1l, dateOfReserv, startTime, endTime, null, null);
+        Reservation reservation1 = new Reservation(1l, dateOfReserv, startTime, endTime, null, null, null);
         room.getReservations().add(reservation1);
 
-        Reservation reservation2 = new Reservation(2l, LocalDate.now().plusDays(3), startTime, endTime, null, null);
+        Reservation reservation2 = new Reservation(2l, LocalDate.now().plusDays(3), startTime, endTime, null, null, null);
         when(reservationRepo.findByIdAndUserId(anyLong(), anyLong())).thenReturn(Optional.of(reservation2));
         when(roomRepo.findById(anyLong())).thenReturn(Optional.of(room));
         // then
@@ -298,14 +333,16 @@ class ReservationServiceTest {
     @Test
     public void handleAddReservationRoom_SuccessfulAdd() {
         // given
-        Reservation reservation = new Reservation(1l, dateOfReserv, startTime, endTime, null, null);
-        Room room = new Room(1l, "101", "Lab", 20, null);
+        Reservation reservation = new Reservation(1l, dateOfReserv, startTime, endTime, null, null, null);
+        Room room = new Room(1l, "101", "Lab", 20, new Campus(2l, "Campus", "Address", 10));
         when(reservationRepo.findByIdAndUserId(anyLong(), anyLong())).thenReturn(Optional.of(reservation));
         when(roomRepo.findById(anyLong())).thenReturn(Optional.of(room));
         // when
         reservationService.addReservationRoom(1l, 1l, 1l);
         // then
         verify(reservationRepo, times(1)).save(any());
+        verify(usageRollupService, times(1)).recordReservationRoom(reservation, room);
+        verify(eventPublisher, times(1)).publishEvent(new ReservationRoomAddedEvent(2l, 1l, dateOfReserv, startTime, endTime));
         assertEquals(1, reservation.getRooms().size());
     }
 
@@ -336,16 +373,88 @@ class ReservationServiceTest {
         Room room = new Room(1l, "101", "Lab", 20, null);
         room.getReservations().addAll(reservationList);
         when(roomRepo.findByIdAndCampusId(anyLong(), anyLong())).thenReturn(Optional.of(room));
+        when(reservationRepo.findRowsByIdIn(List.of(1l, 2l, 3l))).thenReturn(List.of(reservationRowList.get(2), reservationRowList.get(1), reservationRowList.get(0)));
         // when
         Page<ReservationDto> result = reservationService.getReservationsByCampusIdAndRoomId(1l, 1l, pageable);
         // then
         List<ReservationDto> expectedReservationList = List.of(
-            new ReservationDto(3l, dateOfReserv, LocalTime.of(13, 0), LocalTime.of(14, 0), null, null),
             new ReservationDto(1l, dateOfReserv, LocalTime.of(10, 0), LocalTime.of(11, 0), null, null),
-            new ReservationDto(2l, dateOfReserv, LocalTime.of(11, 0), LocalTime.of(12, 0), null, null)
+            new ReservationDto(2l, dateOfReserv, LocalTime.of(11, 0), LocalTime.of(12, 0), null, null),
+            new ReservationDto(3l, dateOfReserv, LocalTime.of(13, 0), LocalTime.of(14, 0), null, null)
         );
         assertArrayEquals(expectedReservationList.toArray(), result.getContent().toArray());
         assertEquals(1, result.getTotalPages());
         assertEquals(3, result.getTotalElements());
     }
+
+    @Test
+    public void handleGetReservationsByCampusIdAndRoomId_PageAfterLastPage_ShouldReturnEmptyPage() {
+        // given
+        Room room = new Room(1l, "101", "Lab", 20, null);
+        room.getReservations().addAll(reservationList);
+        when(roomRepo.findByIdAndCampusId(anyLong(), anyLong())).thenReturn(Optional.of(room));
+        // when
+        Page<ReservationDto> result = reservationService.getReservationsByCampusIdAndRoomId(1l, 1l, PageRequest.of(3, 10));
+        // then
+        TestUtils.checkEmptyPage(result);
+    }
+
+    @Test
+    public void handleGetReservationHistoryByCampusIdAndRoomId_RoomNotInCampus_ShouldReturnEmptyPage() {
+        // given
+        when(roomRepo.existsByIdAndCampusId(1l, 2l)).thenReturn(false);
+        // when
+        Page<ReservationDto> result = reservationService.getReservationHistoryByCampusIdAndRoomId(2l, 1l, pageable);
+        // then
+        TestUtils.checkEmptyPage(result);
+        verifyNoInteractions(reservationArchiveRepo);
+    }
+
+    @Test
+    public void handleDeleteReservation_ReservationOfUser_RemoveUsageAndDeleteInBulk() {
+        // given
+        List<RoomUsageRow> rooms = List.of(new RoomUsageRow(1l, 2l, dateOfReserv, startTime, endTime));
+        when(reservationRepo.existsByIdAndUserId(2l, 1l)).thenReturn(true);
+        when(reservationRepo.findRoomUsageRowsById(2l)).thenReturn(rooms);
+        // when
+        boolean result = reservationService.deleteReservation(1l, 2l);
+        // then
+        assertTrue(result);
+        verify(usageRollupService, times(1)).removeUsage(rooms);
+        verify(reservationRepo, times(1)).deleteInBulkByIdAndUserId(2l, 1l);
+        verify(eventPublisher, times(1)).publishEvent(new ReservationRoomRemovedEvent(2l, 1l, dateOfReserv, startTime, endTime));
+    }
+
+    @Test
+    public void handleDeleteReservation_ReservationOfOtherUser_ReturnFalse() {
+        // given
+        when(reservationRepo.existsByIdAndUserId(2l, 1l)).thenReturn(false);
+        // when
+        boolean result = reservationService.deleteReservation(1l, 2l);
+        // then
+        assertFalse(result);
+        verify(reservationRepo, never()).deleteInBulkByIdAndUserId(anyLong(), anyLong());
+        verifyNoInteractions(usageRollupService, eventPublisher);
+    }
+
+    @Test
+    public void handleGetReservationsWithRoomsByUserId_PageOfReservations_LoadRoomsOnceForPage() {
+        // given
+        ReservationRoomView room = mock(ReservationRoomView.class);
+        when(room.getReservationId()).thenReturn(2l);
+        when(room.getRoomId()).thenReturn(5l);
+        when(room.getNumber()).thenReturn("101");
+        when(room.getType()).thenReturn("Лекционная");
+        when(room.getCampusId()).thenReturn(1l);
+        when(room.getCampusName()).thenReturn("Campus 1");
+        when(reservationRepo.findRowsByUserId(1l, pageable)).thenReturn(new PageImpl<>(reservationRowList, pageable, 3));
+        when(reservationRepo.findRoomsByReservationIdIn(List.of(1l, 2l, 3l))).thenReturn(List.of(room));
+        // when
+        Page<ReservationWithRoomsDto> result = reservationService.getReservationsWithRoomsByUserId(1l, pageable, false);
+        // then
+        assertEquals(List.of(1l, 2l, 3l), result.map(ReservationWithRoomsDto::getId).toList());
+        assertEquals(Collections.emptyList(), result.getContent().get(0).getRooms());
+        assertEquals(List.of(new ReservationRoomDto(5l, "101", "Лекционная", 1l, "Campus 1")), result.getContent().get(1).getRooms());
+        verify(reservationRepo, times(1)).findRoomsByReservationIdIn(any());
+    }
 }
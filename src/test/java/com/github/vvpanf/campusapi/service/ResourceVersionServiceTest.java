@@ -0,0 +1,99 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.event.CampusChangedEvent;
+import com.github.vvpanf.campusapi.event.RoomChangedEvent;
+import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.RoomRepo;
+import com.github.vvpanf.campusapi.repo.VersionStamp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceVersionServiceTest {
+    @Mock
+    private CampusRepo campusRepo;
+    @Mock
+    private RoomRepo roomRepo;
+    @InjectMocks
+    private ResourceVersionService resourceVersionService;
+
+    private final Instant updatedAt = Instant.parse("2024-03-01T10:00:00Z");
+
+    private VersionStamp stamp(long version) {
+        return new VersionStamp() {
+            public Long getVersion() { return version; }
+            public Instant getUpdatedAt() { return updatedAt; }
+        };
+    }
+
+    @Test
+    public void handleGetCampusVersion_CampusNotFound_ReturnNull() {
+        // given
+        when(campusRepo.findVersionById(1l)).thenReturn(Optional.empty());
+        // when
+        ResourceVersionService.ResourceVersion result = resourceVersionService.getCampusVersion(1l);
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void handleGetCampusVersion_CalledTwice_LoadVersionOnce() {
+        // given
+        when(campusRepo.findVersionById(1l)).thenReturn(Optional.of(stamp(2)));
+        // when
+        ResourceVersionService.ResourceVersion first = resourceVersionService.getCampusVersion(1l);
+        ResourceVersionService.ResourceVersion second = resourceVersionService.getCampusVersion(1l);
+        // then
+        assertEquals(new ResourceVersionService.ResourceVersion("campus-1-2", updatedAt), first);
+        assertSame(first, second);
+        verify(campusRepo, times(1)).findVersionById(1l);
+    }
+
+    @Test
+    public void handleGetCampusRoomsVersion_RoomChanged_ReloadVersion() {
+        // given
+        when(campusRepo.findRoomsVersionById(1l)).thenReturn(Optional.of(stamp(3)), Optional.of(stamp(4)));
+        // when
+        ResourceVersionService.ResourceVersion before = resourceVersionService.getCampusRoomsVersion(1l);
+        resourceVersionService.onRoomChanged(new RoomChangedEvent(1l, 6l));
+        ResourceVersionService.ResourceVersion after = resourceVersionService.getCampusRoomsVersion(1l);
+        // then
+        assertEquals(new ResourceVersionService.ResourceVersion("campus-1-rooms-3", updatedAt), before);
+        assertEquals("campus-1-rooms-4", after.etag());
+    }
+
+    @Test
+    public void handleGetCampusRoomsVersion_CampusDeleted_ReloadVersion() {
+        // given
+        when(campusRepo.findRoomsVersionById(1l)).thenReturn(Optional.of(stamp(3)), Optional.empty());
+        when(campusRepo.findRoomsVersionById(10l)).thenReturn(Optional.of(stamp(2)));
+        // when
+        resourceVersionService.getCampusRoomsVersion(1l);
+        resourceVersionService.getCampusRoomsVersion(10l);
+        resourceVersionService.onCampusChanged(new CampusChangedEvent(1l));
+        ResourceVersionService.ResourceVersion after = resourceVersionService.getCampusRoomsVersion(1l);
+        resourceVersionService.getCampusRoomsVersion(10l);
+        // then
+        assertEquals(new ResourceVersionService.ResourceVersion("campus-1-rooms-none", null), after);
+        verify(campusRepo, times(1)).findRoomsVersionById(10l);
+    }
+
+    @Test
+    public void handleRecordRoomChange_IncrementRoomsVersionOfCampus() {
+        // when
+        resourceVersionService.recordRoomChange(new RoomChangedEvent(1l, 6l));
+        // then
+        verify(campusRepo, times(1)).incrementRoomsVersion(eq(1l), any(Instant.class));
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomMatchServiceTest {
+    @Mock
+    private RoomIndexService roomIndexService;
+    @Mock
+    private ReservationRepo reservationRepo;
+    @InjectMocks
+    private RoomMatchService roomMatchService;
+
+    private final LocalDate date = LocalDate.now().plusDays(1);
+    private final LocalTime startTime = LocalTime.of(10, 0);
+    private final LocalTime endTime = LocalTime.of(12, 0);
+    private final RoomDto lab = new RoomDto(1l, "101", "Lab", 15);
+    private final RoomDto smallLecture = new RoomDto(2l, "201", "Lecture", 40);
+    private final RoomDto bigLecture = new RoomDto(3l, "301", "Lecture", 100);
+    private final RoomDto smallLab = new RoomDto(4l, "102", "Lab", 10);
+
+    @BeforeEach
+    public void beforeEach() {
+        lenient().when(roomIndexService.getIndex(1l)).thenReturn(new CampusRoomIndex(List.of(bigLecture, lab, smallLab, smallLecture)));
+    }
+
+    @Test
+    public void handleMatchRooms_AllRoomsFree_ReturnSmallestFittingRoom() {
+        // given
+        when(reservationRepo.findBusyRoomIds(1l, date, startTime, endTime)).thenReturn(Set.of());
+        // when
+        List<RoomDto> result = roomMatchService.matchRooms(1l, date, startTime, endTime, 20);
+        // then
+        assertEquals(List.of(smallLecture), result);
+    }
+
+    @Test
+    public void handleMatchRooms_SmallestFittingRoomBusy_ReturnNextFittingRoom() {
+        // given
+        when(reservationRepo.findBusyRoomIds(1l, date, startTime, endTime)).thenReturn(Set.of(2l));
+        // when
+        List<RoomDto> result = roomMatchService.matchRooms(1l, date, startTime, endTime, 20);
+        // then
+        assertEquals(List.of(bigLecture), result);
+    }
+
+    @Test
+    public void handleMatchRooms_NoSingleRoomFits_ReturnFewestRooms() {
+        // given
+        when(reservationRepo.findBusyRoomIds(1l, date, startTime, endTime)).thenReturn(Set.of(3l));
+        // when
+        List<RoomDto> result = roomMatchService.matchRooms(1l, date, startTime, endTime, 50);
+        // then
+        assertEquals(List.of(smallLecture, smallLab), result);
+    }
+
+    @Test
+    public void handleMatchRooms_FreeRoomsTooSmall_ReturnEmptyList() {
+        // given
+        when(reservationRepo.findBusyRoomIds(1l, date, startTime, endTime)).thenReturn(Set.of(3l));
+        // when
+        List<RoomDto> result = roomMatchService.matchRooms(1l, date, startTime, endTime, 70);
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void handleMatchRooms_StartTimeAfterEndTime_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> roomMatchService.matchRooms(1l, date, endTime, startTime, 20));
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.dto.RoomSearchDto;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomSearchServiceTest {
+    @Mock
+    private RoomIndexService roomIndexService;
+    @Mock
+    private ReservationRepo reservationRepo;
+    @InjectMocks
+    private RoomSearchService roomSearchService;
+
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private final LocalDate date = LocalDate.now().plusDays(1);
+    private final RoomDto lab = new RoomDto(1l, "101", "Lab", 15);
+    private final RoomDto smallLecture = new RoomDto(2l, "201", "Lecture", 40);
+    private final RoomDto bigLecture = new RoomDto(3l, "301", "Lecture", 100);
+    private final RoomDto smallLab = new RoomDto(4l, "102", "Lab", 10);
+
+    @BeforeEach
+    public void beforeEach() {
+        lenient().when(roomIndexService.getIndex(1l)).thenReturn(new CampusRoomIndex(List.of(bigLecture, lab, smallLab, smallLecture)));
+    }
+
+    @Test
+    public void handleSearchRooms_NoFilters_ReturnAllRoomsAndCounts() {
+        // when
+        RoomSearchDto result = roomSearchService.searchRooms(1l, pageable, new RoomSearchService.FacetSearchParams(null, null, null, null, null, null));
+        // then
+        assertEquals(List.of(lab, smallLecture, bigLecture, smallLab), result.getRooms().getContent());
+        assertEquals(Map.of("Lab", 2, "Lecture", 2), result.getTypeCounts());
+        assertEquals(Map.of("0-19", 2, "20-49", 1, "50-99", 0, "100+", 1), result.getCapacityCounts());
+        verifyNoInteractions(reservationRepo);
+    }
+
+    @Test
+    public void handleSearchRooms_TypeAndMinCapacity_CountEachFacetWithoutItsOwnFilter() {
+        // when
+        RoomSearchDto result = roomSearchService.searchRooms(1l, pageable, new RoomSearchService.FacetSearchParams("Lecture", 20, null, null, null, null));
+        // then
+        assertEquals(List.of(smallLecture, bigLecture), result.getRooms().getContent());
+        assertEquals(2, result.getRooms().getTotalElements());
+        assertEquals(Map.of("Lab", 0, "Lecture", 2), result.getTypeCounts());
+        assertEquals(Map.of("0-19", 0, "20-49", 1, "50-99", 0, "100+", 1), result.getCapacityCounts());
+    }
+
+    @Test
+    public void handleSearchRooms_BusyRoom_ExcludeFromRoomsAndCounts() {
+        // given
+        LocalTime from = LocalTime.of(10, 0);
+        LocalTime until = LocalTime.of(12, 0);
+        when(reservationRepo.findBusyRoomIds(1l, date, from, until)).thenReturn(Set.of(3l));
+        // when
+        RoomSearchDto result = roomSearchService.searchRooms(1l, pageable, new RoomSearchService.FacetSearchParams("Lecture", null, null, date, from, until));
+        // then
+        assertEquals(List.of(smallLecture), result.getRooms().getContent());
+        assertEquals(Map.of("Lab", 2, "Lecture", 1), result.getTypeCounts());
+        assertEquals(Map.of("0-19", 0, "20-49", 1, "50-99", 0, "100+", 0), result.getCapacityCounts());
+    }
+
+    @Test
+    public void handleSearchRooms_SecondPage_ReturnRestOfRooms() {
+        // when
+        RoomSearchDto result = roomSearchService.searchRooms(1l, PageRequest.of(1, 3), new RoomSearchService.FacetSearchParams(null, null, null, null, null, null));
+        // then
+        assertEquals(List.of(smallLab), result.getRooms().getContent());
+        assertEquals(4, result.getRooms().getTotalElements());
+    }
+
+    @Test
+    public void handleSearchRooms_MinCapacityAboveMax_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> roomSearchService.searchRooms(1l, pageable,
+                new RoomSearchService.FacetSearchParams(null, 50, 20, null, null, null)));
+    }
+
+    @Test
+    public void handleSearchRooms_DateWithoutTimes_ShouldThrowException() {
+        // when
+        Exception exception = assertThrows(ValidationException.class, () -> roomSearchService.searchRooms(1l, pageable,
+                new RoomSearchService.FacetSearchParams(null, null, null, date, LocalTime.of(10, 0), null)));
+        // then
+        assertEquals("Для проверки доступности нужно указать дату, время начала и время окончания", exception.getMessage());
+        verifyNoInteractions(roomIndexService, reservationRepo);
+    }
+
+    @Test
+    public void handleSearchRooms_RoomWithoutTypeAndCapacity_ListOnlyWithoutFilters() {
+        // given
+        RoomDto unknown = new RoomDto(5l, "000", null, null);
+        when(roomIndexService.getIndex(2l)).thenReturn(new CampusRoomIndex(List.of(lab, unknown)));
+        // when
+        RoomSearchDto all = roomSearchService.searchRooms(2l, pageable, new RoomSearchService.FacetSearchParams(null, null, null, null, null, null));
+        RoomSearchDto labs = roomSearchService.searchRooms(2l, pageable, new RoomSearchService.FacetSearchParams("Lab", 10, null, null, null, null));
+        // then
+        assertEquals(List.of(lab, unknown), all.getRooms().getContent());
+        assertEquals(Map.of("Lab", 1), all.getTypeCounts());
+        assertEquals(Map.of("0-19", 1, "20-49", 0, "50-99", 0, "100+", 0), all.getCapacityCounts());
+        assertEquals(List.of(lab), labs.getRooms().getContent());
+    }
+}
@@ -1,11 +1,17 @@
 package com.github.vvpanf.campusapi.service;
 
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.ReservationDto;
 import com.github.vvpanf.campusapi.dto.RoomDto;
+import com.github.vvpanf.campusapi.dto.TimetableRoomDto;
 import com.github.vvpanf.campusapi.entity.Campus;
 import com.github.vvpanf.campusapi.entity.Reservation;
 import com.github.vvpanf.campusapi.entity.Room;
+import com.github.vvpanf.campusapi.event.RoomChangedEvent;
 import com.github.vvpanf.campusapi.repo.CampusRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
 import com.github.vvpanf.campusapi.repo.RoomRepo;
+import com.github.vvpanf.campusapi.repo.TimetableRow;
 import com.github.vvpanf.campusapi.utils.TestUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +21,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -35,6 +42,14 @@ class RoomServiceTest {
     private RoomRepo roomRepo;
     @Mock
     private CampusRepo campusRepo;
+    @Mock
+    private ReservationRepo reservationRepo;
+    @Mock
+    private UsageRollupService usageRollupService;
+    @Mock
+    private ChangeLogService changeLogService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @Spy
     private ModelMapper modelMapper = new ModelMapper();
     @InjectMocks
@@ -48,9 +63,9 @@ class RoomServiceTest {
         new Room(3l, "301", "Lab", 15, null)
     );
     private final List<Reservation> reservationList = List.of(
-        new Reservation(1l, reservationDate, LocalTime.of(12, 0), LocalTime.of(13, 0), null, null),
-        new Reservation(2l, reservationDate, LocalTime.of(13, 0), LocalTime.of(14, 0), null, null),
-        new Reservation(3l, reservationDate, LocalTime.of(15, 0), LocalTime.of(16, 0), null, null)
+        new Reservation(1l, reservationDate, LocalTime.of(12, 0), LocalTime.of(13, 0), null, null, null),
+        new Reservation(2l, reservationDate, LocalTime.of(13, 0), LocalTime.of(14, 0), null, null, null),
+        new Reservation(3l, reservationDate, LocalTime.of(15, 0), LocalTime.of(16, 0), null, null, null)
     );
 
     @BeforeEach
@@ -102,6 +117,18 @@ class RoomServiceTest {
         getRoomFilteredTestWithParams(LocalTime.of(11, 0), LocalTime.of(16, 0), false);
     }
 
+    @Test
+    public void handleGetRoomFiltered_PageAfterLastPage_ReturnEmptyPage() {
+        // given
+        when(roomRepo.findAllByCampusId(eq(1l))).thenReturn(roomList);
+        RoomService.RoomSearchParams searchParams = new RoomService.RoomSearchParams(null, null, null, 10);
+        // when
+        Page<RoomDto> result = roomService.getRoomsFiltered(1l, PageRequest.of(5, 10), searchParams);
+        // then
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(3, result.getTotalElements());
+    }
+
     private void getRoomFilteredTestWithParams(LocalTime start, LocalTime end, boolean isFound) {
         // given
         RoomService.RoomSearchParams searchParams = new RoomService.RoomSearchParams(reservationDate, start, end, null);
@@ -122,6 +149,31 @@ class RoomServiceTest {
         }
     }
 
+    @Test
+    public void handleGetCampusTimetable_RowsOrderedByRoom_ReturnRoomsWithReservations() {
+        // given
+        when(roomRepo.findTimetableRows(1l, reservationDate, reservationDate.plusDays(6))).thenReturn(List.of(
+                new TimetableRow(1l, "101", "Lab", 20, 1l, reservationDate, LocalTime.of(12, 0), LocalTime.of(13, 0), null, 10),
+                new TimetableRow(1l, "101", "Lab", 20, 2l, reservationDate, LocalTime.of(13, 0), LocalTime.of(14, 0), null, 12),
+                new TimetableRow(2l, "201", "Lecture", 100, null, null, null, null, null, null)
+        ));
+        // when
+        List<TimetableRoomDto> result = roomService.getCampusTimetable(1l, reservationDate, reservationDate.plusDays(6));
+        // then
+        List<TimetableRoomDto> expected = List.of(
+                new TimetableRoomDto(1l, "101", "Lab", 20, List.of(
+                        new ReservationDto(1l, reservationDate, LocalTime.of(12, 0), LocalTime.of(13, 0), null, 10),
+                        new ReservationDto(2l, reservationDate, LocalTime.of(13, 0), LocalTime.of(14, 0), null, 12))),
+                new TimetableRoomDto(2l, "201", "Lecture", 100, List.of())
+        );
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void handleGetCampusTimetable_RangeTooLong_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> roomService.getCampusTimetable(1l, reservationDate, reservationDate.plusDays(40)));
+    }
+
     @Test
     public void handleGetUserById_UserNotFoundInList_ReturnNull() {
         // given
@@ -146,8 +198,10 @@ class RoomServiceTest {
     @Test
     public void handleAddRoom_SuccessfulAdd_ReturnNewRoomDto() {
         // given
-        when(campusRepo.findById(anyLong())).thenReturn(Optional.of(new Campus()));
-        when(roomRepo.save(any())).thenReturn(roomList.get(0));
+        Campus campus = new Campus();
+        when(campusRepo.existsById(anyLong())).thenReturn(true);
+        when(campusRepo.getReferenceById(anyLong())).thenReturn(campus);
+        when(roomRepo.save(argThat((Room room) -> room.getCampus() == campus))).thenReturn(roomList.get(0));
         // when
         RoomDto newRoom = new RoomDto(null, "101", "Lab", 20);
         RoomDto result = roomService.addRoom(1l, newRoom);
@@ -159,11 +213,36 @@ class RoomServiceTest {
     @Test
     public void handleAddRoom_FailedAddNoSuchCampus_ReturnNull() {
         // given
-        when(campusRepo.findById(anyLong())).thenReturn(Optional.empty());
+        when(campusRepo.existsById(anyLong())).thenReturn(false);
         // when
         RoomDto newRoom = new RoomDto(null, "101", "Lab", 20);
         RoomDto result = roomService.addRoom(1l, newRoom);
         // then
         assertNull(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void handleDeleteRoom_RoomInCampus_DeleteInBulkAndPublishEvent() {
+        // given
+        when(roomRepo.existsByIdAndCampusId(2l, 1l)).thenReturn(true);
+        // when
+        boolean result = roomService.deleteRoom(1l, 2l);
+        // then
+        assertTrue(result);
+        verify(reservationRepo, times(1)).deleteRoomLinksByRoomId(2l);
+        verify(usageRollupService, times(1)).deleteRoomUsage(1l, 2l);
+        verify(roomRepo, times(1)).deleteInBulkByIdAndCampusId(2l, 1l);
+        verify(eventPublisher, times(1)).publishEvent(new RoomChangedEvent(1l, 2l));
+    }
+
+    @Test
+    public void handleDeleteRoom_RoomNotInCampus_ReturnFalse() {
+        // given
+        when(roomRepo.existsByIdAndCampusId(2l, 1l)).thenReturn(false);
+        // when
+        boolean result = roomService.deleteRoom(1l, 2l);
+        // then
+        assertFalse(result);
+        verifyNoInteractions(reservationRepo, usageRollupService, eventPublisher);
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.CampusDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseFieldsQueryTest {
+    private final SparseFieldsQuery sparseFieldsQuery = new SparseFieldsQuery(null);
+
+    @Test
+    public void handleSelect_FieldsWithDuplicates_ReturnIdFirstThenRequestOrder() {
+        // when
+        List<String> result = sparseFieldsQuery.select(CampusDto.class, List.of("parkingSpaces", " name", "id", "name"));
+        // then
+        assertEquals(List.of("id", "parkingSpaces", "name"), result);
+    }
+
+    @Test
+    public void handleSelect_UnknownField_ShouldThrowException() {
+        // when
+        Exception exception = assertThrows(ValidationException.class, () -> sparseFieldsQuery.select(CampusDto.class, List.of("name", "rooms")));
+        // then
+        assertEquals("Неизвестное поле: rooms", exception.getMessage());
+    }
+}
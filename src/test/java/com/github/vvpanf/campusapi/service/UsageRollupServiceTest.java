@@ -0,0 +1,144 @@
+package com.github.vvpanf.campusapi.service;
+
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.UsageDto;
+import com.github.vvpanf.campusapi.entity.Campus;
+import com.github.vvpanf.campusapi.entity.Reservation;
+import com.github.vvpanf.campusapi.entity.Room;
+import com.github.vvpanf.campusapi.entity.UsageRollup;
+import com.github.vvpanf.campusapi.entity.UsageRollup.Period;
+import com.github.vvpanf.campusapi.entity.UsageRollup.Scope;
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.UsageRollupRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UsageRollupServiceTest {
+    @Mock
+    private UsageRollupRepo usageRollupRepo;
+    @Mock
+    private ReservationRepo reservationRepo;
+    @Mock
+    private ReservationArchiveRepo reservationArchiveRepo;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @InjectMocks
+    private UsageRollupService usageRollupService;
+
+    // 2024-03-01 is a Friday, its week starts on Monday 2024-02-26
+    private final LocalDate friday = LocalDate.of(2024, 3, 1);
+    private final LocalDate monday = LocalDate.of(2024, 2, 26);
+
+    @Test
+    public void handleRecordReservationRoom_AddMinutesToRoomAndCampusRollups() {
+        // given
+        Campus campus = new Campus(7l, "Campus", "Address", 10);
+        Room room = new Room(3l, "101", "Lab", 20, campus);
+        Reservation reservation = new Reservation(1l, friday, LocalTime.of(10, 0), LocalTime.of(11, 30), null, null, null);
+        // when
+        usageRollupService.recordReservationRoom(reservation, room);
+        // then
+        verify(usageRollupRepo).addUsage("ROOM", 3l, "DAY", friday, 90, 1);
+        verify(usageRollupRepo).addUsage("ROOM", 3l, "WEEK", monday, 90, 1);
+        verify(usageRollupRepo).addUsage("CAMPUS", 7l, "DAY", friday, 90, 1);
+        verify(usageRollupRepo).addUsage("CAMPUS", 7l, "WEEK", monday, 90, 1);
+    }
+
+    @Test
+    public void handleGetUsage_ByWeek_ReadFromStartOfFirstWeek() {
+        // given
+        when(usageRollupRepo.findAllByScopeAndScopeIdAndPeriodAndPeriodStartBetweenOrderByPeriodStart(Scope.CAMPUS, 1l, Period.WEEK, monday, friday))
+                .thenReturn(List.of(new UsageRollup(Scope.CAMPUS, 1l, Period.WEEK, monday, 330l, 3l)));
+        // when
+        List<UsageDto> result = usageRollupService.getUsage(Scope.CAMPUS, 1l, Period.WEEK, friday, friday);
+        // then
+        assertEquals(List.of(new UsageDto(monday, 330l, 3l)), result);
+    }
+
+    @Test
+    public void handleGetUsage_DateToBeforeDateFrom_ShouldThrowException() {
+        // then
+        assertThrows(ValidationException.class, () -> usageRollupService.getUsage(Scope.ROOM, 1l, Period.DAY, friday, friday.minusDays(1)));
+        verifyNoInteractions(usageRollupRepo);
+    }
+
+    @Test
+    public void handleRebuild_ReservationsAndRollups_ReconcileEachChunkOfWeeks() {
+        // given
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(reservationRepo.findFirstDateOfReserv()).thenReturn(Optional.of(friday));
+        when(reservationRepo.findLastDateOfReserv()).thenReturn(Optional.of(friday));
+        when(reservationArchiveRepo.findFirstDateOfReserv()).thenReturn(Optional.of(friday.minusWeeks(5)));
+        when(reservationArchiveRepo.findLastDateOfReserv()).thenReturn(Optional.of(friday.minusWeeks(5)));
+        when(usageRollupRepo.findFirstPeriodStart()).thenReturn(Optional.of(monday.minusWeeks(5)));
+        when(usageRollupRepo.findLastPeriodStart()).thenReturn(Optional.of(friday.plusWeeks(1)));
+        // when
+        usageRollupService.rebuild();
+        // then
+        verify(usageRollupRepo).reconcileRange(monday.minusWeeks(5), monday.minusWeeks(1));
+        verify(usageRollupRepo).reconcileRange(monday.minusWeeks(1), monday.plusWeeks(2));
+        verifyNoMoreInteractions(usageRollupRepo);
+    }
+
+    @Test
+    public void handleRebuild_RollupsWithoutReservations_ReconcileToZero() {
+        // given
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(usageRollupRepo.findFirstPeriodStart()).thenReturn(Optional.of(monday));
+        when(usageRollupRepo.findLastPeriodStart()).thenReturn(Optional.of(friday));
+        // when
+        usageRollupService.rebuild();
+        // then
+        verify(usageRollupRepo).reconcileRange(monday, monday.plusWeeks(1));
+    }
+
+    @Test
+    public void handleRebuild_NoReservationsAndRollups_DoNothing() {
+        // when
+        usageRollupService.rebuild();
+        // then
+        verify(usageRollupRepo, never()).reconcileRange(any(), any());
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    public void handleRebuild_ChunkConflict_RunItAgain() {
+        // given
+        doThrow(new CannotAcquireLockException("Lock timeout"))
+                .doAnswer(invocation -> {
+                    invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                    return null;
+                }).when(transactionTemplate).executeWithoutResult(any());
+        when(usageRollupRepo.findFirstPeriodStart()).thenReturn(Optional.of(monday));
+        when(usageRollupRepo.findLastPeriodStart()).thenReturn(Optional.of(friday));
+        // when
+        usageRollupService.rebuild();
+        // then
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(usageRollupRepo).reconcileRange(monday, monday.plusWeeks(1));
+    }
+}
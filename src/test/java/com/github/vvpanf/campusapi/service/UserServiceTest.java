@@ -1,7 +1,13 @@
 package com.github.vvpanf.campusapi.service;
 
+import com.github.vvpanf.campusapi.ValidationException;
+import com.github.vvpanf.campusapi.dto.MultiGetDto;
 import com.github.vvpanf.campusapi.dto.UserDto;
 import com.github.vvpanf.campusapi.entity.User;
+import com.github.vvpanf.campusapi.event.ReservationRoomRemovedEvent;
+import com.github.vvpanf.campusapi.repo.ReservationArchiveRepo;
+import com.github.vvpanf.campusapi.repo.ReservationRepo;
+import com.github.vvpanf.campusapi.repo.RoomUsageRow;
 import com.github.vvpanf.campusapi.repo.UserRepo;
 import com.github.vvpanf.campusapi.utils.TestUtils;
 import org.junit.jupiter.api.Test;
@@ -11,12 +17,14 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -25,14 +33,30 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
     @Mock
     private UserRepo userRepo;
+    @Mock
+    private ReservationRepo reservationRepo;
+    @Mock
+    private ReservationArchiveRepo reservationArchiveRepo;
+    @Mock
+    private UsageRollupService usageRollupService;
+    @Mock
+    private ChangeLogService changeLogService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @Spy
     private ModelMapper modelMapper = new ModelMapper();
+    @Spy
+    private IdBatchLoader idBatchLoader = new IdBatchLoader(5, 2);
     @InjectMocks
     private UserService userService;
 
@@ -139,4 +163,54 @@ class UserServiceTest {
                 "some@mail.ru");
         assertEquals(expectedUser, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void handleDeleteUser_UserExists_RemoveUsageAndDeleteInBulk() {
+        // given
+        List<RoomUsageRow> usage = List.of(new RoomUsageRow(1l, 1l, LocalDate.of(2024, 3, 1), LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        when(userRepo.existsById(1l)).thenReturn(true);
+        when(reservationRepo.findRoomUsageRowsByUserId(1l)).thenReturn(usage);
+        // when
+        boolean result = userService.deleteUser(1l);
+        // then
+        assertTrue(result);
+        verify(usageRollupService, times(1)).removeUsage(usage);
+        verify(changeLogService, times(1)).recordUserReservationsDeleted(1l);
+        verify(reservationRepo, times(1)).deleteRoomLinksByUserId(1l);
+        verify(reservationArchiveRepo, times(1)).deleteInBulkByUserId(1l);
+        verify(userRepo, times(1)).deleteInBulkById(1l);
+        verify(userRepo, never()).delete(any());
+        verify(eventPublisher, times(1)).publishEvent(new ReservationRoomRemovedEvent(1l, 1l, LocalDate.of(2024, 3, 1), LocalTime.of(10, 0), LocalTime.of(11, 0)));
+    }
+
+    @Test
+    public void handleDeleteUser_UserNotFound_ReturnFalse() {
+        // given
+        when(userRepo.existsById(1l)).thenReturn(false);
+        // when
+        boolean result = userService.deleteUser(1l);
+        // then
+        assertFalse(result);
+        verifyNoInteractions(reservationRepo, reservationArchiveRepo, usageRollupService, eventPublisher);
+    }
+
+    @Test
+    public void handleGetUsersByIds_SomeMissing_ReturnFoundInRequestOrderAndMissing() {
+        // given
+        when(userRepo.findAllById(List.of(3l, 9l))).thenReturn(List.of(userList.get(2)));
+        when(userRepo.findAllById(List.of(1l))).thenReturn(List.of(userList.get(0)));
+        // when
+        MultiGetDto<UserDto> result = userService.getUsersByIds(List.of(3l, 9l, 3l, 1l));
+        // then
+        assertEquals(List.of(3l, 1l), result.getContent().stream().map(UserDto::getId).toList());
+        assertEquals(List.of(9l), result.getMissing());
+    }
+
+    @Test
+    public void handleGetUsersByIds_TooManyIds_ThrowValidationException() {
+        // when
+        // then
+        assertThrows(ValidationException.class, () -> userService.getUsersByIds(List.of(1l, 2l, 3l, 4l, 5l, 6l)));
+        verifyNoInteractions(userRepo);
+    }
+}